@@ -0,0 +1,176 @@
+package com.vodafone.library.benchmark;
+
+import com.vodafone.library.LibraryApplication;
+import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
+import com.vodafone.library.model.BorrowingRecord;
+import com.vodafone.library.model.Customer;
+import com.vodafone.library.repository.AuthorRepository;
+import com.vodafone.library.repository.BookRepository;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import com.vodafone.library.repository.CustomerRepository;
+import com.vodafone.library.services.BookService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// Boots the application (without a web server by default) against a private in-memory H2 database and seeds it
+// with a generated catalogue. Titles are drawn from a small vocabulary so searches hit realistic
+// posting list sizes; the generator is seeded, so every run sees the same data.
+final class BenchmarkCatalogue implements AutoCloseable {
+
+    static final String[] WORDS = {
+            "shadow", "river", "garden", "empire", "silent", "winter", "secret", "journey", "glass", "night",
+            "forest", "ocean", "memory", "stone", "golden", "broken", "city", "light", "storm", "desert",
+            "kingdom", "letter", "mirror", "island", "fire", "library", "summer", "road", "crown", "song",
+            "midnight", "harbor", "paper", "iron", "ghost", "wild", "lost", "second", "house", "dream"
+    };
+    static final String[] GENRES = {"Fiction", "History", "Science", "Poetry", "Mystery", "Biography", "Fantasy", "Travel"};
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ConfigurableApplicationContext context;
+    private final List<Long> authorIds = new ArrayList<>();
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> customerIds = new ArrayList<>();
+    private final List<String> isbns = new ArrayList<>();
+
+    // The first `borrowings` books are checked out, one each, to customers in turn.
+    BenchmarkCatalogue(int books, int borrowings) {
+        this(books, borrowings, new SpringApplicationBuilder(LibraryApplication.class).web(WebApplicationType.NONE));
+    }
+
+    // For runs that need more than a bare context, such as a web server or extra properties
+    BenchmarkCatalogue(int books, int borrowings, SpringApplicationBuilder application) {
+        context = application
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "library.events.directory=" + System.getProperty("java.io.tmpdir") + "/library-events-benchmark-" + UUID.randomUUID(),
+                        "logging.level.root=WARN")
+                .run();
+        seed(books, Math.min(borrowings, books));
+        bean(BookService.class).rebuildSearchIndex();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Entity queries that only the benchmarks run, each in a session of its own; what the query fetches is
+    // all that is loaded once the session closes
+    <T> List<T> query(Class<T> type, String jpql, Object... parameters) {
+        try (EntityManager entityManager = bean(EntityManagerFactory.class).createEntityManager()) {
+            TypedQuery<T> query = entityManager.createQuery(jpql, type);
+            for (int i = 0; i < parameters.length; i++) {
+                query.setParameter(i + 1, parameters[i]);
+            }
+            return query.getResultList();
+        }
+    }
+
+    int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    List<Long> authorIds() {
+        return authorIds;
+    }
+
+    List<Long> bookIds() {
+        return bookIds;
+    }
+
+    List<Long> customerIds() {
+        return customerIds;
+    }
+
+    List<String> isbns() {
+        return isbns;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private void seed(int books, int borrowings) {
+        Random random = new Random(42);
+        TransactionTemplate transaction = new TransactionTemplate(bean(PlatformTransactionManager.class));
+        AuthorRepository authorRepository = bean(AuthorRepository.class);
+        BookRepository bookRepository = bean(BookRepository.class);
+        CustomerRepository customerRepository = bean(CustomerRepository.class);
+        BorrowingRecordRepository borrowingRecordRepository = bean(BorrowingRecordRepository.class);
+
+        int authors = Math.max(1, books / 10);
+        for (int from = 0; from < authors; from += CHUNK_SIZE) {
+            List<Author> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(authors, from + CHUNK_SIZE); i++) {
+                chunk.add(new Author(null, "Author " + word(random) + " " + i, LocalDate.of(1940 + i % 60, 1 + i % 12, 1),
+                        "Nationality " + i % 20, null));
+            }
+            transaction.executeWithoutResult(status -> authorRepository.saveAll(chunk).forEach(author -> authorIds.add(author.getId())));
+        }
+
+        for (int from = 0; from < books; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(books, from + CHUNK_SIZE);
+            transaction.executeWithoutResult(status -> {
+                List<Book> chunk = new ArrayList<>();
+                for (int i = start; i < end; i++) {
+                    String isbn = String.format("BENCH-%09d", i);
+                    isbns.add(isbn);
+                    chunk.add(new Book(null, title(random), authorRepository.getReferenceById(authorIds.get(i % authors)), isbn,
+                            LocalDate.of(1950 + i % 70, 1 + i % 12, 1), GENRES[i % GENRES.length], i >= borrowings));
+                }
+                bookRepository.saveAll(chunk).forEach(book -> bookIds.add(book.getId()));
+            });
+        }
+
+        int customers = Math.max(1, books / 100);
+        for (int from = 0; from < customers; from += CHUNK_SIZE) {
+            List<Customer> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(customers, from + CHUNK_SIZE); i++) {
+                chunk.add(new Customer(null, "Customer " + i, "bench" + i + "@example.com", String.format("012%08d", i),
+                        "password", "Address " + i, null));
+            }
+            transaction.executeWithoutResult(status -> customerRepository.saveAll(chunk).forEach(customer -> customerIds.add(customer.getId())));
+        }
+
+        for (int from = 0; from < borrowings; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(borrowings, from + CHUNK_SIZE);
+            transaction.executeWithoutResult(status -> {
+                List<BorrowingRecord> chunk = new ArrayList<>();
+                for (int i = start; i < end; i++) {
+                    chunk.add(new BorrowingRecord(null, customerRepository.getReferenceById(customerIds.get(i % customers)),
+                            bookRepository.getReferenceById(bookIds.get(i)), LocalDate.of(2024, 1, 1).plusDays(i % 365), null));
+                }
+                borrowingRecordRepository.saveAll(chunk);
+            });
+        }
+    }
+
+    private static String title(Random random) {
+        return capitalize(word(random)) + " " + word(random) + " " + word(random);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.vodafone.library.benchmark;
+
+import com.vodafone.library.services.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// BookService search paths against a seeded catalogue. ISBN lookups go through the Caffeine cache,
+// so small catalogues measure cache hits there and catalogues larger than the cache mostly misses.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    public int books;
+
+    private BenchmarkCatalogue catalogue;
+    private BookService bookService;
+    private List<Long> authorIds;
+    private List<String> isbns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalogue = new BenchmarkCatalogue(books, 0);
+        bookService = catalogue.bean(BookService.class);
+        authorIds = catalogue.authorIds();
+        isbns = catalogue.isbns();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalogue.close();
+    }
+
+    @Benchmark
+    public Object searchByTitleWord() {
+        return bookService.searchByTitle(word());
+    }
+
+    // Two tokens, the second one a prefix, as typed into a search box
+    @Benchmark
+    public Object searchByTitlePrefix() {
+        String second = word();
+        return bookService.searchByTitle(word() + " " + second.substring(0, 3));
+    }
+
+    @Benchmark
+    public Object searchByAuthorId() {
+        return bookService.searchByAuthorId(authorIds.get(ThreadLocalRandom.current().nextInt(authorIds.size())));
+    }
+
+    @Benchmark
+    public Object searchByIsbn() {
+        return bookService.searchByIsbn(isbns.get(ThreadLocalRandom.current().nextInt(isbns.size())));
+    }
+
+    private static String word() {
+        return BenchmarkCatalogue.WORDS[ThreadLocalRandom.current().nextInt(BenchmarkCatalogue.WORDS.length)];
+    }
+}
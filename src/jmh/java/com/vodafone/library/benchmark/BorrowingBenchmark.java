@@ -0,0 +1,100 @@
+package com.vodafone.library.benchmark;
+
+import com.vodafone.library.model.Book;
+import com.vodafone.library.model.BorrowingRecord;
+import com.vodafone.library.model.Customer;
+import com.vodafone.library.services.BorrowingRecordService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// BorrowingRecordService.createBorrowingRecord against a seeded catalogue with an existing history.
+// Each invocation checks a book out and returns it again so the catalogue stays in the same state;
+// every benchmark thread cycles through its own stripe of books, so threads (-t) never contend.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BorrowingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalogue {
+
+        @Param({"1000", "100000"})
+        public int books;
+
+        BenchmarkCatalogue catalogue;
+        BorrowingRecordService borrowingRecordService;
+        List<Long> availableBookIds;
+        List<Long> customerIds;
+        final AtomicInteger threads = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Half the catalogue is on loan, spread over the customers; benchmarks borrow from the other half
+            catalogue = new BenchmarkCatalogue(books, books / 2);
+            borrowingRecordService = catalogue.bean(BorrowingRecordService.class);
+            availableBookIds = catalogue.bookIds().subList(books / 2, books);
+            customerIds = catalogue.customerIds();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            catalogue.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int thread;
+        private int threadCount;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Catalogue catalogue, BenchmarkParams params) {
+            thread = catalogue.threads.getAndIncrement();
+            threadCount = params.getThreads();
+        }
+
+        Long nextBookId(Catalogue catalogue) {
+            int stripe = catalogue.availableBookIds.size() / threadCount;
+            Long bookId = catalogue.availableBookIds.get(thread * stripe + next);
+            next = (next + 1) % stripe;
+            return bookId;
+        }
+
+        Long customerId(Catalogue catalogue) {
+            return catalogue.customerIds.get((thread + next) % catalogue.customerIds.size());
+        }
+    }
+
+    @Benchmark
+    public Object borrowAndReturn(Catalogue catalogue, Cursor cursor) {
+        Customer customer = new Customer();
+        customer.setId(cursor.customerId(catalogue));
+        Book book = new Book();
+        book.setId(cursor.nextBookId(catalogue));
+        BorrowingRecord saved = catalogue.borrowingRecordService
+                .createBorrowingRecord(new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14)))
+                .getBody();
+        return catalogue.borrowingRecordService.deleteBorrowingRecord(saved.getId());
+    }
+}
@@ -0,0 +1,149 @@
+package com.vodafone.library.benchmark;
+
+import com.vodafone.library.LibraryApplication;
+import com.vodafone.library.model.BorrowingRecord;
+import com.vodafone.library.repository.BookRepository;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The borrowing queries against a large borrowing history, without the query indexes V2 added and
+// V9 kept (the tables and foreign key indexes as ddl-auto made them) and with them. Both runs migrate to
+// the latest schema, which is what the entities validate against, and the run without takes the indexes
+// out afterwards. Run with -p borrowings=10000000 for the full-size comparison; the default keeps a run
+// within a few minutes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class BorrowingQueryBenchmark {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    // The foreign keys give up the composite indexes first; added back, they get single-column ones again
+    private static final List<String> DROP_QUERY_INDEXES = List.of(
+            "alter table book drop constraint fk_book_author",
+            "alter table borrowing_record drop constraint fk_borrowing_record_customer",
+            "alter table borrowing_record drop constraint fk_borrowing_record_book",
+            "drop index ix_book_author_id",
+            "drop index ix_borrowing_record_customer",
+            "drop index ix_borrowing_record_book",
+            "alter table book add constraint fk_book_author foreign key (author_id) references author (id)",
+            "alter table borrowing_record add constraint fk_borrowing_record_customer foreign key (customer_id) references customer (id)",
+            "alter table borrowing_record add constraint fk_borrowing_record_book foreign key (book_id) references book (id)");
+
+    @Param({"without", "with"})
+    public String queryIndexes;
+
+    @Param("1000000")
+    public int borrowings;
+
+    @Param("100000")
+    public int books;
+
+    private BenchmarkCatalogue catalogue;
+    private BookRepository bookRepository;
+    private BorrowingRecordRepository borrowingRecordRepository;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> authorIds;
+    private List<Long> bookIds;
+    private List<Long> customerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalogue = new BenchmarkCatalogue(books, 0, new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE));
+        bookRepository = catalogue.bean(BookRepository.class);
+        borrowingRecordRepository = catalogue.bean(BorrowingRecordRepository.class);
+        jdbcTemplate = catalogue.bean(JdbcTemplate.class);
+        authorIds = catalogue.authorIds();
+        bookIds = catalogue.bookIds();
+        customerIds = catalogue.customerIds();
+        if (queryIndexes.equals("without")) {
+            DROP_QUERY_INDEXES.forEach(jdbcTemplate::execute);
+        }
+        seedHistory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalogue.close();
+    }
+
+    // Plain JDBC batches: going through JPA would take longer than the benchmark itself. About one
+    // loan in fifty is still open.
+    private void seedHistory() {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        long firstId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from borrowing_record", Long.class) + 1;
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= borrowings; i++) {
+            LocalDate borrowDate = start.plusDays(random.nextInt(3650));
+            batch.add(new Object[]{firstId + i - 1, customerIds.get(random.nextInt(customerIds.size())),
+                    bookIds.get(random.nextInt(bookIds.size())), Date.valueOf(borrowDate),
+                    random.nextInt(50) == 0 ? null : Date.valueOf(borrowDate.plusDays(14))});
+            if (batch.size() == INSERT_BATCH || i == borrowings) {
+                jdbcTemplate.batchUpdate("insert into borrowing_record (id, customer_id, book_id, borrow_date, retur_date) values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("alter sequence borrowing_record_seq restart with " + (firstId + borrowings));
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Benchmark
+    public Object loansByCustomerFirstPage() {
+        return borrowingRecordRepository.findSummariesByCustomerIdAfter(random(customerIds), 0L, Limit.of(20));
+    }
+
+    @Benchmark
+    public Object loansByBookFirstPage() {
+        return borrowingRecordRepository.findSummariesByBookIdAfter(random(bookIds), 0L, Limit.of(20));
+    }
+
+    @Benchmark
+    public Object loansByCustomer() {
+        return catalogue.query(BorrowingRecord.class, "select r from BorrowingRecord r join fetch r.customer c " +
+                "join fetch r.book b join fetch b.author where c.id = ?1", random(customerIds));
+    }
+
+    @Benchmark
+    public Object booksByAuthor() {
+        return bookRepository.findSummariesByAuthorId(random(authorIds));
+    }
+
+    @Benchmark
+    public Integer activeLoansOfBook() {
+        return jdbcTemplate.queryForObject("select count(*) from borrowing_record where book_id = ? and retur_date is null",
+                Integer.class, random(bookIds));
+    }
+
+    private static Long random(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,151 @@
+package com.vodafone.library.benchmark;
+
+import com.vodafone.library.LibraryApplication;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Closed-loop HTTP load against the real server, once on Tomcat's platform-thread pool and once with
+// spring.threads.virtual.enabled (skipped below Java 21). Reports latency percentiles, throughput and
+// the most requests the server had in flight at once. Arguments are key=value pairs:
+// books (catalogue size), concurrency (requests kept in flight), requests (total per mode) and
+// tomcatThreads (platform pool size).
+public final class RequestLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        int books = Integer.parseInt(options.getOrDefault("books", "10000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "50000"));
+        int tomcatThreads = Integer.parseInt(options.getOrDefault("tomcatThreads", "200"));
+
+        run("platform", false, books, concurrency, requests, tomcatThreads);
+        if (Runtime.version().feature() >= 21) {
+            run("virtual", true, books, concurrency, requests, tomcatThreads);
+        } else {
+            System.out.println("virtual: skipped, needs Java 21 (build with -Pjava21)");
+        }
+    }
+
+    private static void run(String mode, boolean virtualThreads, int books, int concurrency, int requests,
+                            int tomcatThreads) throws Exception {
+        InFlightFilter inFlight = new InFlightFilter();
+        SpringApplicationBuilder application = new SpringApplicationBuilder(LibraryApplication.class)
+                .initializers(context -> ((GenericApplicationContext) context).registerBean(InFlightFilter.class, () -> inFlight))
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "spring.threads.virtual.enabled=" + virtualThreads);
+        try (BenchmarkCatalogue catalogue = new BenchmarkCatalogue(books, 0, application)) {
+            String base = "http://localhost:" + catalogue.port() + "/api/books";
+            List<Long> bookIds = catalogue.bookIds();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+            // Warm up the JIT and the connection pool before measuring
+            fire(client, base, bookIds, Math.min(concurrency, 200), Math.max(1000, requests / 10));
+            inFlight.reset();
+
+            long started = System.nanoTime();
+            Result result = fire(client, base, bookIds, concurrency, requests);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            long[] latencies = result.latencies();
+            Arrays.sort(latencies);
+            System.out.printf("%-8s requests=%d errors=%d throughput=%.0f/s p50=%.1fms p99=%.1fms max=%.1fms maxInFlight=%d%n",
+                    mode, requests, result.errors(), requests / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6, inFlight.max());
+        }
+    }
+
+    private record Result(long[] latencies, int errors) {
+    }
+
+    // Keeps `concurrency` requests outstanding until `requests` have completed
+    private static Result fire(HttpClient client, String base, List<Long> bookIds, int concurrency, int requests)
+            throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore permits = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            permits.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            client.sendAsync(request(base, bookIds), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        permits.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        return new Result(latencies, errors.get());
+    }
+
+    // The read mix of the catalogue API: a page, a title search and a single book
+    private static HttpRequest request(String base, List<Long> bookIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = switch (random.nextInt(3)) {
+            case 0 -> "?size=20";
+            case 1 -> "/search?title=" + BenchmarkCatalogue.WORDS[random.nextInt(BenchmarkCatalogue.WORDS.length)];
+            default -> "/" + bookIds.get(random.nextInt(bookIds.size()));
+        };
+        return HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    // Counts requests inside the servlet container, so the maximum shows how many it really ran at once
+    static final class InFlightFilter implements Filter {
+
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            max.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                current.decrementAndGet();
+            }
+        }
+
+        void reset() {
+            max.set(current.get());
+        }
+
+        int max() {
+            return max.get();
+        }
+    }
+}
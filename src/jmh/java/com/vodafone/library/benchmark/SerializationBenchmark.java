@@ -0,0 +1,76 @@
+package com.vodafone.library.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vodafone.library.model.Author;
+import com.vodafone.library.model.BorrowingRecord;
+import com.vodafone.library.model.Customer;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of the entity graphs with @JsonIdentityInfo, using the application's
+// ObjectMapper. The graphs are loaded once per trial, so only serialization is measured.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int books;
+
+    private BenchmarkCatalogue catalogue;
+    private ObjectMapper objectMapper;
+    private List<Author> authors;
+    private List<Customer> customers;
+    private List<BorrowingRecord> borrowingRecords;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalogue = new BenchmarkCatalogue(books, books / 2);
+        objectMapper = catalogue.bean(ObjectMapper.class);
+        authors = catalogue.query(Author.class, "select a from Author a left join fetch a.books");
+        customers = catalogue.query(Customer.class, "select c from Customer c left join fetch c.borrowingRecords r " +
+                "left join fetch r.book b left join fetch b.author");
+        borrowingRecords = catalogue.bean(BorrowingRecordRepository.class).findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalogue.close();
+    }
+
+    // Author -> books, each book pointing back at its author
+    @Benchmark
+    public byte[] authorsWithBooks() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(authors);
+    }
+
+    // Customer -> borrowing records -> book -> author
+    @Benchmark
+    public byte[] customersWithBorrowingRecords() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customers);
+    }
+
+    @Benchmark
+    public byte[] borrowingRecords() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(borrowingRecords);
+    }
+}
@@ -0,0 +1,21 @@
+package com.vodafone.library.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Cache sizes and TTLs are set through spring.cache.caffeine.spec; recordStats makes Actuator
+// publish cache.gets (hit/miss), cache.puts and cache.evictions for every cache below.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String BOOKS_BY_ISBN = "booksByIsbn";
+    public static final String AUTHORS = "authors";
+
+    // Hibernate second-level cache regions; their sizes and expiry are in application.conf
+    public static final String AUTHOR_ENTITIES = "author-entities";
+    public static final String BOOK_ENTITIES = "book-entities";
+    public static final String AUTHOR_BOOKS = "author-books";
+    public static final String BOOK_QUERIES = "book-queries";
+}
@@ -0,0 +1,34 @@
+package com.vodafone.library.config;
+
+import com.vodafone.library.services.CatalogueImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Command line import: start the application with --library.import.file=catalogue.csv (or .ndjson)
+@Component
+@ConditionalOnProperty("library.import.file")
+public class CatalogueImportRunner implements ApplicationRunner {
+
+    @Autowired
+    private CatalogueImportService catalogueImportService;
+
+    @Value("${library.import.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        MediaType contentType = file.toString().endsWith(".csv") ? CatalogueImportService.TEXT_CSV : MediaType.APPLICATION_NDJSON;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            catalogueImportService.importCatalogue(inputStream, contentType);
+        }
+    }
+}
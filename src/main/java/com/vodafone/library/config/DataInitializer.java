@@ -10,12 +10,16 @@ import com.vodafone.library.repository.BorrowingRecordRepository;
 import com.vodafone.library.repository.CustomerRepository;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import com.vodafone.library.services.CredentialService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Configuration
 @RequiredArgsConstructor
@@ -29,59 +33,76 @@ public class DataInitializer {
     private final BorrowingRecordRepository borrowingRecordRepository;
 //    @Autowired
     private final CustomerRepository customerRepository;
+    private final CredentialService credentialService;
 
+    // Entities are built in memory and written with saveAll, so each table is filled with batched
+    // inserts instead of a save plus findById round trip per row.
     @Bean
     public int initDummyData() {
 
+        List<Author> authors = new ArrayList<>();
         for (int i = 1; i <= 5; i++) {
             Author author = new Author();
             author.setName("Author " + i);
             author.setBirthDate(LocalDate.of(1980 + i, 1, 1));
             author.setNationality("Nationality " + i);
-            authorRepository.save(author);
+            authors.add(author);
         }
 
 
+        List<Book> books = new ArrayList<>();
         for (int i = 1; i <= 10; i++) {
             Book book = new Book();
             book.setTitle("Book " + i);
             book.setIsbn("ISBN" + i);
             book.setPublicationDate(LocalDate.of(2000 + i, 1, 1));
             book.setGenre("Genre " + i);
+            book.setTotalCopies(1 + i % 3);
+            book.setAvailableCopies(book.getTotalCopies());
             book.setAvailable(true);
-            Author author = authorRepository.findById((long) (i + 1) / 2).orElseThrow();
-            book.setAuthor(author);
-            bookRepository.save(book);
+            book.setAuthor(authors.get((i - 1) / 2));
+            books.add(book);
         }
 
 
+        // The seed passwords are hashed side by side on the credential pool rather than one after another here
+        List<CompletableFuture<String>> passwords = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            passwords.add(credentialService.hash("password" + i));
+        }
+        List<Customer> customers = new ArrayList<>();
         for (int i = 1; i <= 5; i++) {
             Customer customer = new Customer();
             customer.setName("Customer " + i);
             customer.setEmail("customer" + i + "@example.com");
             customer.setAddress("Address " + i);
             customer.setPhoneNumber("0101234567" + i);
-            String encryptedPassword = SecurityConfig.encodePassword("password" + i);
+            String encryptedPassword = passwords.get(i - 1).join();
             customer.setPassword(encryptedPassword);
-            customerRepository.save(customer);
+            customers.add(customer);
         }
 
 
+        List<BorrowingRecord> borrowingRecords = new ArrayList<>();
         for (int i = 1; i <= 6; i++) {
-            BorrowingRecord borrowingRecord = new BorrowingRecord();
-            Customer customer = customerRepository.findById((long) (i + 1) / 2).orElseThrow();
-            Book book = bookRepository.findById((long) i).orElseThrow();
+            Book book = books.get(i - 1);
             if(book.getAvailable()){
-                borrowingRecord.setCustomer(customerRepository.findById((long) (i + 1) / 2).orElseThrow());
-                borrowingRecord.setBook(bookRepository.findById((long) i).orElseThrow());
+                BorrowingRecord borrowingRecord = new BorrowingRecord();
+                borrowingRecord.setCustomer(customers.get((i - 1) / 2));
+                borrowingRecord.setBook(book);
                 borrowingRecord.setBorrowDate(LocalDate.now().minusDays(i));
-                borrowingRecord.getBook().setAvailable(false);
-                bookRepository.save(borrowingRecord.getBook());
-                borrowingRecordRepository.save(borrowingRecord);
+                book.setAvailableCopies(book.getAvailableCopies() - 1);
+                book.setAvailable(book.getAvailableCopies() > 0);
+                borrowingRecords.add(borrowingRecord);
             }
 
         }
 
+        authorRepository.saveAll(authors);
+        bookRepository.saveAll(books);
+        customerRepository.saveAll(customers);
+        borrowingRecordRepository.saveAll(borrowingRecords);
+
         return 0;
     }
 }
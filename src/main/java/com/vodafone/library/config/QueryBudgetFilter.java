@@ -0,0 +1,52 @@
+package com.vodafone.library.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Flags requests that issue more SQL statements than library.query-budget.max-statements, which is how
+// N+1 fetches show up. With library.query-budget.strict=true the request fails instead, so tests catch them.
+@Slf4j
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    @Value("${library.query-budget.max-statements:10}")
+    private int maxStatements;
+
+    @Value("${library.query-budget.strict:false}")
+    private boolean strict;
+
+    // Imports write thousands of rows by design
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/import");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountInspector.reset();
+        int statements;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements = QueryCountInspector.count();
+            QueryCountInspector.clear();
+        }
+        if (statements > maxStatements) {
+            String message = request.getMethod() + " " + request.getRequestURI() + " issued " + statements
+                    + " SQL statements, budget is " + maxStatements;
+            if (strict) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.vodafone.library.config;
+
+import com.vodafone.library.repository.ReactiveBookRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+// Reactive read path over the same database, enabled with library.reactive.enabled=true. The R2DBC pool is
+// deliberately not a ConnectionFactory bean: Boot would take it as the primary database and back off the
+// JDBC DataSource that JPA runs on (which is also why R2dbcAutoConfiguration is excluded).
+@Configuration
+@ConditionalOnProperty(name = "library.reactive.enabled", havingValue = "true")
+@EnableR2dbcRepositories(basePackageClasses = ReactiveBookRepository.class, entityOperationsRef = "reactiveEntityOperations")
+public class ReactiveConfig {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public R2dbcEntityOperations reactiveEntityOperations(@Value("${library.reactive.url}") String url,
+                                                          @Value("${spring.datasource.username}") String username,
+                                                          @Value("${spring.datasource.password}") String password,
+                                                          @Value("${library.reactive.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(1)
+                .maxSize(poolSize)
+                .build());
+        return new R2dbcEntityTemplate(connectionPool);
+    }
+
+    @PreDestroy
+    void close() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.vodafone.library.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs @Scheduled jobs, such as the nightly overdue scan in OverdueScanService
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,16 +1,15 @@
 package com.vodafone.library.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.apache.commons.codec.digest.DigestUtils;
-import org.springframework.stereotype.Component;
 
-
-@Component
+@Configuration
 public class SecurityConfig {
 
-    public static String encodePassword(String password) {
-        return DigestUtils.sha256Hex(password);
+    // The cost is tunable per deployment; stored hashes made with another cost are upgraded on login.
+    @Bean
+    public PasswordHasher passwordHasher(@Value("${library.credentials.iterations:600000}") int iterations) {
+        return new PasswordHasher(iterations);
     }
-
 }
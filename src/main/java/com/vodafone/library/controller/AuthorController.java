@@ -1,5 +1,6 @@
 package com.vodafone.library.controller;
 
+import com.vodafone.library.dto.AuthorSummary;
 import com.vodafone.library.model.Author;
 import com.vodafone.library.services.AuthorService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,10 +30,10 @@ public class AuthorController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the authors",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Author.class))})
+                            schema = @Schema(implementation = AuthorSummary.class))})
     })
     @GetMapping
-    public ResponseEntity<List<Author>> getAllAuthors() {
+    public ResponseEntity<List<AuthorSummary>> getAllAuthors() {
         return authorService.getAllAuthors();
     }
 
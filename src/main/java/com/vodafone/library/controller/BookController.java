@@ -1,7 +1,20 @@
 package com.vodafone.library.controller;
 
+import com.vodafone.library.dto.BookAvailability;
+import com.vodafone.library.dto.BookHoldSummary;
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.dto.BookUpdateRequest;
+import com.vodafone.library.dto.BorrowerEstimate;
+import com.vodafone.library.dto.HoldRequest;
+import com.vodafone.library.dto.ImportReport;
+import com.vodafone.library.dto.RelatedBook;
+import com.vodafone.library.dto.TrendingReport;
+import com.vodafone.library.dto.TrendingWindow;
 import com.vodafone.library.model.Book;
 import com.vodafone.library.services.BookService;
+import com.vodafone.library.services.CatalogueImportService;
+import com.vodafone.library.services.HoldService;
+import com.vodafone.library.services.Pagination;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +26,16 @@ import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -27,15 +46,63 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
-    @Operation(summary = "Get all books", description = "Retrieve a list of all books")
+    @Autowired
+    private CatalogueImportService catalogueImportService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Operation(summary = "Get all books", description = "Retrieve a page of books ordered by ID. The X-Next-Cursor response header holds the afterId of the next page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the books",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Book.class))})
+                            schema = @Schema(implementation = BookSummary.class))})
     })
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<List<BookSummary>> getAllBooks(@Parameter(description = "Return books with an ID greater than this one") @RequestParam(required = false) Long afterId,
+                                                         @Parameter(description = "Page size, capped at " + Pagination.MAX_PAGE_SIZE) @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size) {
+        return bookService.getAllBooks(afterId, size);
+    }
+
+    @Operation(summary = "Export all books", description = "Stream the whole catalogue as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalogue export",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = BookSummary.class))})
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = bookService::exportBooks;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Import books", description = "Load books and their authors from CSV with the header " +
+            "title,isbn,publicationDate,genre,authorName,authorBirthDate,authorNationality or from newline-delimited JSON " +
+            "with the same fields. Authors are matched by name and books whose ISBN already exists are skipped")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportReport.class))}),
+            @ApiResponse(responseCode = "400", description = "Missing or incomplete CSV header",
+                    content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportReport> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                    InputStream body) throws IOException {
+        return catalogueImportService.importCatalogue(body, contentType);
+    }
+
+    @Operation(summary = "Get trending books", description = "The most borrowed books in the last hour, day or week, with the number " +
+            "of borrows and distinct borrowers in that window. Figures are estimates from in-memory sketches and slide in twelfths of the window")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Trending books",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TrendingReport.class))})
+    })
+    @GetMapping("/trending")
+    public ResponseEntity<TrendingReport> getTrendingBooks(@Parameter(description = "HOUR, DAY or WEEK") @RequestParam(defaultValue = "DAY") TrendingWindow window,
+                                                           @Parameter(description = "Number of books, capped at " + Pagination.MAX_PAGE_SIZE) @RequestParam(defaultValue = "10") int limit) {
+        return bookService.getTrendingBooks(window, limit);
     }
 
     @ApiResponses(value = {
@@ -50,6 +117,104 @@ public class BookController {
         return bookService.getBookById(id);
     }
 
+    @Operation(summary = "Get book availability", description = "How many copies of a book are on the shelf right now")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the book",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookAvailability.class))}),
+            @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content)
+    })
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<BookAvailability> getAvailability(@Parameter(description = "ID of the book") @PathVariable Long id) {
+        return bookService.getAvailability(id);
+    }
+
+    @Operation(summary = "Subscribe to availability changes", description = "Server-Sent Events stream of availability events, one per change of a book's available copies, starting with the current counts. A resync event means changes were dropped for a slow client and the counts should be read again")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Subscribed",
+                    content = {@Content(mediaType = "text/event-stream",
+                            schema = @Schema(implementation = BookAvailability.class))}),
+            @ApiResponse(responseCode = "400", description = "More than " + Pagination.MAX_PAGE_SIZE + " books",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many subscribers",
+                    content = @Content)
+    })
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeAvailability(@Parameter(description = "Books to follow; all books when left out") @RequestParam(required = false) List<Long> bookIds) {
+        return bookService.subscribeAvailability(bookIds == null ? List.of() : bookIds);
+    }
+
+    @Operation(summary = "Get related books", description = "Books most often borrowed by the customers who borrowed this one, strongest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the book",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RelatedBook.class))}),
+            @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content)
+    })
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedBook>> getRelatedBooks(@Parameter(description = "ID of the book") @PathVariable Long id,
+                                                             @Parameter(description = "Number of books, capped at " + Pagination.MAX_PAGE_SIZE) @RequestParam(defaultValue = "10") int limit) {
+        return bookService.getRelatedBooks(id, limit);
+    }
+
+    @Operation(summary = "Get holds", description = "The waitlist for a book, in the order returned copies will be handed out")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the holds",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookHoldSummary.class))})
+    })
+    @GetMapping("/{id}/holds")
+    public ResponseEntity<List<BookHoldSummary>> getHolds(@Parameter(description = "ID of the book") @PathVariable Long id) {
+        return holdService.getHolds(id);
+    }
+
+    @Operation(summary = "Place a hold", description = "Join the waitlist for a book with no copy on the shelf. " +
+            "The next returned copy goes to the oldest hold as a new loan")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Hold placed",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookHoldSummary.class))}),
+            @ApiResponse(responseCode = "404", description = "Book or customer not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "A copy is on the shelf, or the customer already holds the book",
+                    content = @Content)
+    })
+    @PostMapping("/{id}/holds")
+    public ResponseEntity<BookHoldSummary> placeHold(@Parameter(description = "ID of the book") @PathVariable Long id,
+                                                     @Valid @RequestBody HoldRequest request) {
+        return holdService.placeHold(id, request);
+    }
+
+    @Operation(summary = "Cancel a hold", description = "Leave the waitlist for a book")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Hold cancelled",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Hold not found",
+                    content = @Content)
+    })
+    @DeleteMapping("/{id}/holds/{holdId}")
+    public ResponseEntity<Void> cancelHold(@Parameter(description = "ID of the book") @PathVariable Long id,
+                                           @Parameter(description = "ID of the hold") @PathVariable Long holdId) {
+        return holdService.cancelHold(id, holdId);
+    }
+
+    @Operation(summary = "Get unique borrowers", description = "Estimated number of distinct customers who borrowed a book since the server started")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the book",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BorrowerEstimate.class))}),
+            @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content)
+    })
+    @GetMapping("/{id}/borrowers")
+    public ResponseEntity<BorrowerEstimate> getUniqueBorrowers(@Parameter(description = "ID of the book") @PathVariable Long id) {
+        return bookService.getUniqueBorrowers(id);
+    }
+
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Book created",
                     content = {@Content(mediaType = "application/json",
@@ -61,7 +226,7 @@ public class BookController {
             description = "Details of the new book to be created",
             required = true,
             content = @Content(schema = @Schema(example =
-                    "{\"title\": \"Book Title\", \"isbn\": \"978-3-16-148410-0\", \"publicationDate\": \"2001-01-01\", \"genre\": \"Genre\", \"available\": true, \"author\": {\"id\": 1}}"))
+                    "{\"title\": \"Book Title\", \"isbn\": \"978-3-16-148410-0\", \"publicationDate\": \"2001-01-01\", \"genre\": \"Genre\", \"totalCopies\": 3, \"author\": {\"id\": 1}}"))
     )
     @PostMapping
     public ResponseEntity<Book> createBook(@Valid @RequestBody Book book) {
@@ -88,16 +253,18 @@ public class BookController {
             @ApiResponse(responseCode = "400", description = "Invalid input",
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "More copies are on loan than the new total",
                     content = @Content)
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
-            description = "Details of the book to be updated",
+            description = "Details of the book to be updated; without totalCopies the number of copies is left as it is",
             required = true,
             content = @Content(schema = @Schema(example =
-                    "{\"title\": \"Updated Book Title\", \"isbn\": \"978-3-16-148410-0\", \"publicationDate\": \"2001-01-01\", \"genre\": \"Genre\", \"available\": true, \"author\": {\"id\": 1}}"))
+                    "{\"title\": \"Updated Book Title\", \"isbn\": \"978-3-16-148410-0\", \"publicationDate\": \"2001-01-01\", \"genre\": \"Genre\", \"totalCopies\": 3, \"author\": {\"id\": 1}}"))
     )
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book) {
+    public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody BookUpdateRequest book) {
         return bookService.updateBook(id, book);
     }
 
@@ -105,14 +272,14 @@ public class BookController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the books",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Book.class))}),
+                            schema = @Schema(implementation = BookSummary.class))}),
             @ApiResponse(responseCode = "400", description = "Invalid input",
                     content = @Content)
     })
     @GetMapping("/search")
-    public ResponseEntity<List<Book>> searchBooks(@Parameter(description = "Title of the book") @RequestParam(required = false) String title,
-                                                  @Parameter(description = "ID of the author") @RequestParam(required = false) Long authorId,
-                                                  @Parameter(description = "ISBN of the book") @RequestParam(required = false) String isbn) {
+    public ResponseEntity<List<BookSummary>> searchBooks(@Parameter(description = "Title of the book") @RequestParam(required = false) String title,
+                                                         @Parameter(description = "ID of the author") @RequestParam(required = false) Long authorId,
+                                                         @Parameter(description = "ISBN of the book") @RequestParam(required = false) String isbn) {
         if (title != null) {
             return bookService.searchByTitle(title);
         } else if (authorId != null) {
@@ -1,8 +1,16 @@
 package com.vodafone.library.controller;
 
 
+import com.vodafone.library.dto.ActiveLoanStats;
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import com.vodafone.library.dto.BulkBorrowingRequest;
+import com.vodafone.library.dto.BulkReturnRequest;
+import com.vodafone.library.dto.OverdueLoanSummary;
+import com.vodafone.library.dto.OverdueScanReport;
 import com.vodafone.library.model.BorrowingRecord;
 import com.vodafone.library.services.BorrowingRecordService;
+import com.vodafone.library.services.OverdueScanService;
+import com.vodafone.library.services.Pagination;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,8 +23,10 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -27,16 +37,57 @@ public class BorrowingRecordController {
     @Autowired
     private BorrowingRecordService borrowingRecordService;
 
+    @Autowired
+    private OverdueScanService overdueScanService;
+
 
-    @Operation(summary = "Get all borrowing records", description = "Retrieve a list of all borrowing records")
+    @Operation(summary = "Get all borrowing records", description = "Retrieve a page of borrowing records ordered by ID. The X-Next-Cursor response header holds the afterId of the next page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the borrowing records",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = BorrowingRecord.class))})
+                            schema = @Schema(implementation = BorrowingRecordSummary.class))})
     })
     @GetMapping
-    public ResponseEntity<List<BorrowingRecord>> getAllBorrowingRecords() {
-        return borrowingRecordService.getAllBorrowingRecords();
+    public ResponseEntity<List<BorrowingRecordSummary>> getAllBorrowingRecords(@Parameter(description = "Return records with an ID greater than this one") @RequestParam(required = false) Long afterId,
+                                                                               @Parameter(description = "Page size, capped at " + Pagination.MAX_PAGE_SIZE) @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size) {
+        return borrowingRecordService.getAllBorrowingRecords(afterId, size);
+    }
+
+    @Operation(summary = "Export all borrowing records", description = "Stream the whole borrowing history as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Borrowing history export",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = BorrowingRecordSummary.class))})
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBorrowingRecords() {
+        StreamingResponseBody body = borrowingRecordService::exportBorrowingRecords;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Export overdue loans", description = "Stream the report written by the last overdue scan as newline-delimited JSON, most overdue first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Overdue loans",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = OverdueLoanSummary.class))})
+    })
+    @GetMapping(value = "/overdue", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOverdueLoans() {
+        StreamingResponseBody body = overdueScanService::exportOverdueLoans;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Run the overdue scan", description = "Check the loans that fell due or changed since the last scan and update the overdue report")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Scan finished",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OverdueScanReport.class))}),
+            @ApiResponse(responseCode = "409", description = "A scan is already running",
+                    content = @Content)
+    })
+    @PostMapping("/overdue/scan")
+    public ResponseEntity<OverdueScanReport> scanOverdueLoans() {
+        return overdueScanService.scan();
     }
 
     @Operation(summary = "Get borrowing record by ID", description = "Retrieve a borrowing record by its ID")
@@ -71,6 +122,44 @@ public class BorrowingRecordController {
         return borrowingRecordService.createBorrowingRecord(borrowingRecord);
     }
 
+    @Operation(summary = "Borrow several books", description = "Check out up to 50 books for one customer in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Borrowing records created",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BorrowingRecordSummary.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "Some of the books are not available; the body lists their IDs",
+                    content = @Content)
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Customer and books to be checked out",
+            required = true,
+            content = @Content(schema = @Schema(example =
+                    "{\"customerId\": 1, \"bookIds\": [1, 2, 3], \"borrowDate\": \"2024-06-12\", \"returnDate\": \"2024-06-26\"}"))
+    )
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createBorrowingRecords(@Valid @RequestBody BulkBorrowingRequest request) {
+        return borrowingRecordService.createBorrowingRecords(request);
+    }
+
+    @Operation(summary = "Return several books", description = "Delete up to 50 borrowing records and mark their books as available")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Borrowing records deleted",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Some of the borrowing records were not found",
+                    content = @Content)
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Borrowing records to be returned",
+            required = true,
+            content = @Content(schema = @Schema(example = "{\"borrowingRecordIds\": [1, 2, 3]}"))
+    )
+    @PostMapping("/bulk/return")
+    public ResponseEntity<Void> deleteBorrowingRecords(@Valid @RequestBody BulkReturnRequest request) {
+        return borrowingRecordService.deleteBorrowingRecords(request);
+    }
+
     @Operation(summary = "Update a borrowing record", description = "Update an existing borrowing record by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Borrowing record updated",
@@ -106,22 +195,47 @@ public class BorrowingRecordController {
         return borrowingRecordService.deleteBorrowingRecord(id);
     }
 
+    @Operation(summary = "Get a customer's open loans", description = "Every book the customer currently has out, soonest due first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the open loans",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BorrowingRecordSummary.class))})
+    })
+    @GetMapping("/active")
+    public ResponseEntity<List<BorrowingRecordSummary>> getActiveLoans(
+            @Parameter(description = "ID of the customer") @RequestParam Long customerId) {
+        return borrowingRecordService.getActiveLoansByCustomerId(customerId);
+    }
+
+    @Operation(summary = "Get open loan counts", description = "Open loans, customers with a loan, books out and overdue loans across the library")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Open loan counts",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ActiveLoanStats.class))})
+    })
+    @GetMapping("/active/stats")
+    public ResponseEntity<ActiveLoanStats> getActiveLoanStats() {
+        return borrowingRecordService.getActiveLoanStats();
+    }
+
     @Operation(summary = "Search borrowing records", description = "Search borrowing records by customer ID or book ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the borrowing records",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = BorrowingRecord.class))}),
+                            schema = @Schema(implementation = BorrowingRecordSummary.class))}),
             @ApiResponse(responseCode = "400", description = "Invalid input",
                     content = @Content)
     })
     @GetMapping("/search")
-    public ResponseEntity<List<BorrowingRecord>> getBorrowingRecords(
+    public ResponseEntity<List<BorrowingRecordSummary>> getBorrowingRecords(
             @Parameter(description = "ID of the customer to search borrowing records for") @RequestParam(required = false) Long customerId,
-            @Parameter(description = "ID of the book to search borrowing records for") @RequestParam(required = false) Long bookId) {
+            @Parameter(description = "ID of the book to search borrowing records for") @RequestParam(required = false) Long bookId,
+            @Parameter(description = "Return records with an ID greater than this one") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Page size, capped at " + Pagination.MAX_PAGE_SIZE) @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size) {
         if (customerId != null) {
-            return borrowingRecordService.getBorrowingRecordsByCustomerId(customerId);
+            return borrowingRecordService.getBorrowingRecordsByCustomerId(customerId, afterId, size);
         } else if (bookId != null) {
-            return borrowingRecordService.getBorrowingRecordsByBookId(bookId);
+            return borrowingRecordService.getBorrowingRecordsByBookId(bookId, afterId, size);
         } else {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
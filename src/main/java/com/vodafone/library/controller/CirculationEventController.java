@@ -0,0 +1,40 @@
+package com.vodafone.library.controller;
+
+
+import com.vodafone.library.dto.CirculationEvent;
+import com.vodafone.library.services.CirculationEventService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/events")
+@Tag(name = "CirculationEvent", description = "API for consuming the circulation event log")
+public class CirculationEventController {
+    @Autowired
+    private CirculationEventService circulationEventService;
+
+    @Operation(summary = "Read circulation events", description = "Stream events from an offset as newline-delimited JSON. The X-Next-Offset response header holds the offset to read from next")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Events from the offset on, possibly none",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = CirculationEvent.class))}),
+            @ApiResponse(responseCode = "400", description = "Negative offset or wait, or a limit below 1",
+                    content = @Content)
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> readEvents(@Parameter(description = "Offset of the first event to return") @RequestParam(defaultValue = "0") long fromOffset,
+                                                            @Parameter(description = "Most events to return, capped at " + CirculationEventService.MAX_EVENTS) @RequestParam(defaultValue = "1000") int limit,
+                                                            @Parameter(description = "How long to wait for an event when there is none yet, capped at " + CirculationEventService.MAX_WAIT_MILLIS + " ms") @RequestParam(defaultValue = "0") long waitMillis) {
+        return circulationEventService.readEvents(fromOffset, limit, waitMillis);
+    }
+}
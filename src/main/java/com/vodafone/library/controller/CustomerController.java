@@ -1,6 +1,8 @@
 package com.vodafone.library.controller;
 
 
+import com.vodafone.library.dto.CustomerSummary;
+import com.vodafone.library.dto.LoginRequest;
 import com.vodafone.library.model.Customer;
 import com.vodafone.library.services.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,14 +12,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -30,10 +36,10 @@ public class CustomerController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the customers",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Customer.class))})
+                            schema = @Schema(implementation = CustomerSummary.class))})
     })
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
+    public ResponseEntity<List<CustomerSummary>> getAllCustomers() {
         return customerService.getAllCustomers();
     }
 
@@ -57,6 +63,8 @@ public class CustomerController {
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = Customer.class))}),
             @ApiResponse(responseCode = "400", description = "Invalid input",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many passwords being hashed, retry later",
                     content = @Content)
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -66,10 +74,39 @@ public class CustomerController {
                     "{\"name\": \"Omar Tayfour\", \"email\": \"omar@example.com\", \"address\": \"123 Main St\", \"phoneNumber\": \"01012345678\", \"password\": \"password123\"}"))
     )
     @PostMapping
-    public ResponseEntity<Customer> createCustomer(@Valid @RequestBody Customer customer) {
+    public CompletableFuture<ResponseEntity<Customer>> createCustomer(@Valid @RequestBody Customer customer) {
         return customerService.createCustomer(customer);
     }
 
+    @Operation(summary = "Log in", description = "Verify a customer's email and password. A successful login starts a session, and is remembered for that session for a few minutes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Credentials are valid",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CustomerSummary.class))}),
+            @ApiResponse(responseCode = "401", description = "Unknown email or wrong password",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many logins in progress, retry later",
+                    content = @Content)
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Email and password of the customer",
+            required = true,
+            content = @Content(schema = @Schema(example =
+                    "{\"email\": \"omar@example.com\", \"password\": \"password123\"}"))
+    )
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<CustomerSummary>> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // A session is only started once the password checks out, so failed attempts leave none behind
+        HttpSession session = httpRequest.getSession(false);
+        return customerService.login(request, session == null ? null : session.getId())
+                .thenApply(response -> {
+                    if (session == null && response.getStatusCode() == HttpStatus.OK) {
+                        httpRequest.getSession();
+                    }
+                    return response;
+                });
+    }
+
     @Operation(summary = "Update a customer", description = "Update an existing customer by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer updated",
@@ -78,6 +115,8 @@ public class CustomerController {
             @ApiResponse(responseCode = "400", description = "Invalid input",
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Customer not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many passwords being hashed, retry later",
                     content = @Content)
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -87,7 +126,7 @@ public class CustomerController {
                     "{\"name\": \"Omar Tayfour\", \"email\": \"omar@example.com\", \"address\": \"123 Main St\", \"phoneNumber\": \"01012345678\", \"password\": \"password123\"}"))
     )
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> updateCustomer(@Parameter(description = "ID of the customer to be updated") @PathVariable Long id, @Valid @RequestBody Customer customer) {
+    public CompletableFuture<ResponseEntity<Customer>> updateCustomer(@Parameter(description = "ID of the customer to be updated") @PathVariable Long id, @Valid @RequestBody Customer customer) {
         return customerService.updateCustomer(id, customer);
     }
 
@@ -0,0 +1,107 @@
+package com.vodafone.library.controller;
+
+import com.vodafone.library.dto.AuthorSummary;
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.services.Pagination;
+import com.vodafone.library.services.ReactiveCatalogueService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Read-only catalogue API backed by R2DBC. The handler returns before any row is read, so the request
+// thread goes back to the pool; NDJSON streams are written one row at a time as the client consumes them.
+@RestController
+@RequestMapping("/api/reactive")
+@ConditionalOnProperty(name = "library.reactive.enabled", havingValue = "true")
+@Tag(name = "Reactive catalogue", description = "Non-blocking reads of books and authors")
+public class ReactiveCatalogueController {
+
+    @Autowired
+    private ReactiveCatalogueService reactiveCatalogueService;
+
+    @Operation(summary = "Get all books", description = "Retrieve a page of books ordered by ID. The X-Next-Cursor response header holds the afterId of the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the books",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookSummary.class))})
+    })
+    @GetMapping("/books")
+    public Mono<ResponseEntity<List<BookSummary>>> getAllBooks(@Parameter(description = "Return books with an ID greater than this one") @RequestParam(required = false) Long afterId,
+                                                               @Parameter(description = "Page size, capped at " + Pagination.MAX_PAGE_SIZE) @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size) {
+        return reactiveCatalogueService.getAllBooks(afterId, size);
+    }
+
+    @Operation(summary = "Stream all books", description = "Stream the whole catalogue as newline-delimited JSON, paced by the client")
+    @GetMapping(value = "/books/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookSummary> streamBooks() {
+        return reactiveCatalogueService.streamBooks();
+    }
+
+    @Operation(summary = "Get book by ID", description = "Retrieve a book by its ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the book",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookSummary.class))}),
+            @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content)
+    })
+    @GetMapping("/books/{id}")
+    public Mono<ResponseEntity<BookSummary>> getBookById(@Parameter(description = "ID of the book to be retrieved") @PathVariable Long id) {
+        return reactiveCatalogueService.getBookById(id);
+    }
+
+    @Operation(summary = "Search books", description = "Search for books by title, author ID, or ISBN")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the books",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookSummary.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input",
+                    content = @Content)
+    })
+    @GetMapping("/books/search")
+    public ResponseEntity<Flux<BookSummary>> searchBooks(@Parameter(description = "Title of the book") @RequestParam(required = false) String title,
+                                                         @Parameter(description = "ID of the author") @RequestParam(required = false) Long authorId,
+                                                         @Parameter(description = "ISBN of the book") @RequestParam(required = false) String isbn) {
+        if (title != null) {
+            return ResponseEntity.ok(reactiveCatalogueService.searchByTitle(title));
+        } else if (authorId != null) {
+            return ResponseEntity.ok(reactiveCatalogueService.searchByAuthorId(authorId));
+        } else if (isbn != null) {
+            return ResponseEntity.ok(reactiveCatalogueService.searchByIsbn(isbn));
+        }
+        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    @Operation(summary = "Stream all authors", description = "Stream every author as newline-delimited JSON, paced by the client")
+    @GetMapping(value = "/authors/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AuthorSummary> streamAuthors() {
+        return reactiveCatalogueService.streamAuthors();
+    }
+
+    @Operation(summary = "Get author by ID", description = "Retrieve an author by its ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the author",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AuthorSummary.class))}),
+            @ApiResponse(responseCode = "404", description = "Author not found",
+                    content = @Content)
+    })
+    @GetMapping("/authors/{id}")
+    public Mono<ResponseEntity<AuthorSummary>> getAuthorById(@Parameter(description = "ID of the author to be retrieved") @PathVariable Long id) {
+        return reactiveCatalogueService.getAuthorById(id);
+    }
+}
@@ -0,0 +1,4 @@
+package com.vodafone.library.dto;
+
+public record ActiveLoanStats(Long openLoans, Long borrowers, Long booksOut, Long overdue) {
+}
@@ -0,0 +1,6 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDate;
+
+public record AuthorSummary(Long id, String name, LocalDate birthDate, String nationality) {
+}
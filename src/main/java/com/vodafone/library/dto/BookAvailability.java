@@ -0,0 +1,4 @@
+package com.vodafone.library.dto;
+
+public record BookAvailability(Long bookId, int availableCopies, boolean available) {
+}
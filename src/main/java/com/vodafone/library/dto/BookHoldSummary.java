@@ -0,0 +1,6 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDateTime;
+
+public record BookHoldSummary(Long id, Long bookId, Long customerId, LocalDateTime placedAt, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,7 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDate;
+
+public record BookSummary(Long id, String title, String isbn, LocalDate publicationDate, String genre,
+                          Boolean available, Long authorId, String authorName) {
+}
@@ -0,0 +1,14 @@
+package com.vodafone.library.dto;
+
+import com.vodafone.library.model.Author;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+// Body of PUT /books/{id}. Left out, totalCopies keeps the book's current number of copies.
+public record BookUpdateRequest(@NotBlank String title, Author author, @NotBlank String isbn,
+                                @NotNull LocalDate publicationDate, @NotBlank String genre,
+                                @Min(1) Integer totalCopies) {
+}
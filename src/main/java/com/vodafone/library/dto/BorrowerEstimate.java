@@ -0,0 +1,4 @@
+package com.vodafone.library.dto;
+
+public record BorrowerEstimate(Long bookId, long uniqueBorrowers) {
+}
@@ -0,0 +1,7 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDate;
+
+public record BorrowingRecordSummary(Long id, Long customerId, String customerName, Long bookId, String bookTitle,
+                                     LocalDate borrowDate, LocalDate returnDate) {
+}
@@ -0,0 +1,14 @@
+package com.vodafone.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record BulkBorrowingRequest(@NotNull Long customerId,
+                                   @NotEmpty @Size(max = 50) List<@NotNull Long> bookIds,
+                                   @NotNull LocalDate borrowDate,
+                                   LocalDate returnDate) {
+}
@@ -0,0 +1,10 @@
+package com.vodafone.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkReturnRequest(@NotEmpty @Size(max = 50) List<@NotNull Long> borrowingRecordIds) {
+}
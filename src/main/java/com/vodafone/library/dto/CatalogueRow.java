@@ -0,0 +1,7 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDate;
+
+public record CatalogueRow(String title, String isbn, LocalDate publicationDate, String genre,
+                           String authorName, LocalDate authorBirthDate, String authorNationality) {
+}
@@ -0,0 +1,11 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// An entry of the circulation event log. eventId is random and set when the event is written, so it
+// survives being relayed twice and never repeats after a restart; the relay delivers at least once, so a
+// consumer that must not see an event twice can skip ids it already has.
+public record CirculationEvent(UUID eventId, CirculationEventType type, Long bookId, Long customerId,
+                               Long borrowingRecordId, LocalDateTime occurredAt) {
+}
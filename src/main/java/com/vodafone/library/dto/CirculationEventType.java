@@ -0,0 +1,10 @@
+package com.vodafone.library.dto;
+
+public enum CirculationEventType {
+    BOOK_CREATED,
+    BOOK_UPDATED,
+    BOOK_DELETED,
+    BOOK_BORROWED,
+    BOOK_RETURNED,
+    LOAN_UPDATED
+}
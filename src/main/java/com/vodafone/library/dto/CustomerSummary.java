@@ -0,0 +1,4 @@
+package com.vodafone.library.dto;
+
+public record CustomerSummary(Long id, String name, String email, String phoneNumber, String address) {
+}
@@ -0,0 +1,6 @@
+package com.vodafone.library.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record HoldRequest(@NotNull Long customerId) {
+}
@@ -0,0 +1,5 @@
+package com.vodafone.library.dto;
+
+public record ImportReport(long read, long imported, long duplicates, long rejected, long authorsCreated,
+                           long elapsedMillis, long rowsPerSecond) {
+}
@@ -0,0 +1,6 @@
+package com.vodafone.library.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record LoginRequest(@NotBlank String email, @NotBlank String password) {
+}
@@ -0,0 +1,8 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record OverdueLoanSummary(Long borrowingRecordId, Long customerId, String customerName, Long bookId, String bookTitle,
+                                 LocalDate dueDate, LocalDateTime detectedAt) {
+}
@@ -0,0 +1,7 @@
+package com.vodafone.library.dto;
+
+import java.time.LocalDate;
+
+public record OverdueScanReport(LocalDate scannedBefore, long dueScanned, long changedScanned, long overdueFound,
+                                long elapsedMillis) {
+}
@@ -0,0 +1,4 @@
+package com.vodafone.library.dto;
+
+public record RelatedBook(BookSummary book, int coBorrowers, double score) {
+}
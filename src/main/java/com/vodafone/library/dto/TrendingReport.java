@@ -0,0 +1,6 @@
+package com.vodafone.library.dto;
+
+import java.util.List;
+
+public record TrendingReport(TrendingWindow window, long borrows, long uniqueBorrowers, List<TrendingBook> books) {
+}
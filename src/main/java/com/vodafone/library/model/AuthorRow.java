@@ -0,0 +1,11 @@
+package com.vodafone.library.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+// R2DBC mapping of the author table for the reactive read path. Author stays the JPA write model.
+@Table("author")
+public record AuthorRow(@Id Long id, String name, LocalDate birthDate, String nationality) {
+}
@@ -4,11 +4,16 @@ package com.vodafone.library.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.vodafone.library.config.CacheConfig;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
@@ -17,10 +22,13 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.BOOK_ENTITIES)
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "title")
@@ -44,11 +52,26 @@ public class Book {
     @NotBlank
     private String genre;
 
+    // True while at least one copy is on the shelf. The availability columns are only written on insert and
+    // by the conditional updates in BookRepository, so saving a stale entity can never overwrite a checkout.
     @Setter
-    @Column(name = "available")
+    @Column(name = "available", updatable = false)
     @NotNull
     private boolean available = true;
 
+    @Column(name = "totalCopies", updatable = false)
+    @Min(1)
+    private int totalCopies = 1;
+
+    @Column(name = "availableCopies", updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int availableCopies = 1;
+
+    // A single copy, on the shelf or not
+    public Book(Long id, String title, Author author, String isbn, LocalDate publicationDate, String genre, boolean available) {
+        this(id, title, author, isbn, publicationDate, genre, available, 1, available ? 1 : 0);
+    }
+
     public boolean getAvailable() {
         return this.available;
     }
@@ -0,0 +1,34 @@
+package com.vodafone.library.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A customer's place in the waitlist for a book. The row is deleted when a returned copy is handed to
+// the customer, when the customer cancels, or once it expires.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_hold_seq")
+    @SequenceGenerator(name = "book_hold_seq", sequenceName = "book_hold_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "bookId")
+    private Long bookId;
+
+    @Column(name = "customerId")
+    private Long customerId;
+
+    @Column(name = "placedAt")
+    private LocalDateTime placedAt;
+
+    @Column(name = "expiresAt")
+    private LocalDateTime expiresAt;
+}
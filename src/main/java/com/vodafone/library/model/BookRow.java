@@ -0,0 +1,12 @@
+package com.vodafone.library.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+// R2DBC mapping of the book table for the reactive read path. Book stays the JPA write model.
+@Table("book")
+public record BookRow(@Id Long id, String title, String isbn, LocalDate publicationDate, String genre,
+                      Boolean available, Long authorId) {
+}
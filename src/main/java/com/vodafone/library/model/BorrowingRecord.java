@@ -6,8 +6,10 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Data
@@ -17,7 +19,8 @@ import java.time.LocalDate;
 public class BorrowingRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_record_seq")
+    @SequenceGenerator(name = "borrowing_record_seq", sequenceName = "borrowing_record_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -36,4 +39,14 @@ public class BorrowingRecord {
 
     @Column(name = "returDate")
     private LocalDate returnDate;
+
+    // Set on every insert and update; the overdue scan uses it to find loans changed since its last run
+    @UpdateTimestamp
+    @Column(name = "lastModified")
+    @JsonIgnore
+    private LocalDateTime lastModified;
+
+    public BorrowingRecord(Long id, Customer customer, Book book, LocalDate borrowDate, LocalDate returnDate) {
+        this(id, customer, book, borrowDate, returnDate, null);
+    }
 }
@@ -0,0 +1,44 @@
+package com.vodafone.library.model;
+
+import com.vodafone.library.dto.CirculationEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A circulation event waiting to be relayed to the event log. Written in the transaction of the change
+// it describes and deleted once relayed. No foreign keys, so it outlives the book or loan it names.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    // Stays unique across restarts of the in-memory database, unlike id
+    @Column(name = "eventId")
+    private UUID eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "eventType")
+    private CirculationEventType eventType;
+
+    @Column(name = "bookId")
+    private Long bookId;
+
+    @Column(name = "customerId")
+    private Long customerId;
+
+    @Column(name = "borrowingRecordId")
+    private Long borrowingRecordId;
+
+    @Column(name = "occurredAt")
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,50 @@
+package com.vodafone.library.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row of the overdue report, keyed by the loan it reports on. The scan deletes a chunk's rows and
+// writes them again, so every save is an insert and needs no select to tell insert from update.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OverdueLoan implements Persistable<Long> {
+
+    @Id
+    @Column(name = "borrowingRecordId")
+    private Long borrowingRecordId;
+
+    @Column(name = "customerId")
+    private Long customerId;
+
+    @Column(name = "bookId")
+    private Long bookId;
+
+    @Column(name = "dueDate")
+    private LocalDate dueDate;
+
+    @Column(name = "detectedAt")
+    private LocalDateTime detectedAt;
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return borrowingRecordId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return true;
+    }
+}
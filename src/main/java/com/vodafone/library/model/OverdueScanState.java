@@ -0,0 +1,31 @@
+package com.vodafone.library.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Watermark of the overdue scan: loans due before scannedBefore and not modified since modifiedSince
+// have already been checked.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OverdueScanState {
+
+    public static final Integer ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "scannedBefore")
+    private LocalDate scannedBefore;
+
+    @Column(name = "modifiedSince")
+    private LocalDateTime modifiedSince;
+}
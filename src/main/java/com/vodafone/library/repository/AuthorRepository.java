@@ -1,7 +1,14 @@
 package com.vodafone.library.repository;
 
+import com.vodafone.library.dto.AuthorSummary;
 import com.vodafone.library.model.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
+
+    @Query("select new com.vodafone.library.dto.AuthorSummary(a.id, a.name, a.birthDate, a.nationality) from Author a order by a.id")
+    List<AuthorSummary> findAllSummaries();
 }
@@ -0,0 +1,44 @@
+package com.vodafone.library.repository;
+
+import com.vodafone.library.dto.BookHoldSummary;
+import com.vodafone.library.model.BookHold;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+
+    boolean existsByBookIdAndCustomerId(Long bookId, Long customerId);
+
+    // 1 when this transaction removed the hold, 0 when another one got there first
+    @Modifying
+    @Query("delete from BookHold h where h.id = :id")
+    int deleteHold(@Param("id") Long id);
+
+    // The book's live holds placed after (afterPlacedAt, afterId), or from the first when afterPlacedAt
+    // is null, in the order they were placed; read off the (book_id, placed_at, id) index
+    @Query("select new com.vodafone.library.dto.BookHoldSummary(h.id, h.bookId, h.customerId, h.placedAt, h.expiresAt) " +
+            "from BookHold h where h.bookId = :bookId and h.expiresAt >= :now and (cast(:afterPlacedAt as LocalDateTime) is null " +
+            "or h.placedAt > :afterPlacedAt or (h.placedAt = :afterPlacedAt and h.id > :afterId)) order by h.placedAt, h.id")
+    List<BookHoldSummary> findLiveHoldsAfter(@Param("bookId") Long bookId, @Param("afterPlacedAt") LocalDateTime afterPlacedAt,
+                                             @Param("afterId") Long afterId, @Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("delete from BookHold h where h.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.vodafone.library.dto.BookHoldSummary(h.id, h.bookId, h.customerId, h.placedAt, h.expiresAt) " +
+            "from BookHold h order by h.bookId, h.placedAt, h.id")
+    Stream<BookHoldSummary> streamAllSummaries();
+}
@@ -1,12 +1,106 @@
 package com.vodafone.library.repository;
 
+import com.vodafone.library.config.CacheConfig;
+import com.vodafone.library.dto.BookAvailability;
+import com.vodafone.library.dto.BookSummary;
 import com.vodafone.library.model.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
-    List<Book> findByTitleContaining(String title);
-    List<Book> findByAuthorId(Long authorId);
-    List<Book> findByIsbn(String isbn);
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<Book> findAllById(Iterable<Long> ids);
+
+    @Query("select new com.vodafone.library.dto.BookSummary(b.id, b.title, b.isbn, b.publicationDate, b.genre, b.available, a.id, a.name) " +
+            "from Book b join b.author a where b.id > :afterId order by b.id")
+    List<BookSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.vodafone.library.dto.BookSummary(b.id, b.title, b.isbn, b.publicationDate, b.genre, b.available, a.id, a.name) " +
+            "from Book b join b.author a where b.id in :ids")
+    List<BookSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Cached results hold the summaries' values; any write to the book or author table invalidates them
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.BOOK_QUERIES)})
+    @Query("select new com.vodafone.library.dto.BookSummary(b.id, b.title, b.isbn, b.publicationDate, b.genre, b.available, a.id, a.name) " +
+            "from Book b join b.author a where a.id = :authorId order by b.id")
+    List<BookSummary> findSummariesByAuthorId(@Param("authorId") Long authorId);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.BOOK_QUERIES)})
+    @Query("select new com.vodafone.library.dto.BookSummary(b.id, b.title, b.isbn, b.publicationDate, b.genre, b.available, a.id, a.name) " +
+            "from Book b join b.author a where b.isbn = :isbn")
+    List<BookSummary> findSummariesByIsbn(@Param("isbn") String isbn);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    @Query("select b.availableCopies from Book b where b.id = :id")
+    Optional<Integer> findAvailableCopies(@Param("id") Long id);
+
+    @Query("select new com.vodafone.library.dto.BookAvailability(b.id, b.availableCopies, b.available) from Book b where b.id in :ids")
+    List<BookAvailability> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Conditional updates used as the borrow/return guard: the row lock taken by the UPDATE makes the
+    // copy count check and the change atomic, and the returned row count says who won. The right-hand
+    // sides all see the row as it was before the update, so `available` follows the new count.
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies - 1, " +
+            "b.available = case when b.availableCopies > 1 then true else false end " +
+            "where b.id = :id and b.availableCopies > 0")
+    int markBorrowed(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies + 1, b.available = true " +
+            "where b.id = :id and b.availableCopies < b.totalCopies")
+    int markReturned(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies - 1, " +
+            "b.available = case when b.availableCopies > 1 then true else false end " +
+            "where b.id in :ids and b.availableCopies > 0")
+    int markAllBorrowed(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies + 1, b.available = true " +
+            "where b.id in :ids and b.availableCopies < b.totalCopies")
+    int markAllReturned(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies + :copies, b.available = true " +
+            "where b.id = :id and b.availableCopies + :copies <= b.totalCopies")
+    int returnCopies(@Param("id") Long id, @Param("copies") int copies);
+
+    // Takes copies off the shelf that were lent without a checkout, such as added copies handed to holds
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies - :copies, " +
+            "b.available = case when b.availableCopies > :copies then true else false end " +
+            "where b.id = :id and b.availableCopies >= :copies")
+    int lendCopies(@Param("id") Long id, @Param("copies") int copies);
+
+    // Copies on loan stay on loan; fails (returns 0) when more copies are out than the new total
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies + (:totalCopies - b.totalCopies), b.totalCopies = :totalCopies, " +
+            "b.available = case when b.availableCopies + (:totalCopies - b.totalCopies) > 0 then true else false end " +
+            "where b.id = :id and b.availableCopies + (:totalCopies - b.totalCopies) >= 0")
+    int resizeCopies(@Param("id") Long id, @Param("totalCopies") int totalCopies);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.vodafone.library.dto.BookSummary(b.id, b.title, b.isbn, b.publicationDate, b.genre, b.available, a.id, a.name) " +
+            "from Book b join b.author a order by b.id")
+    Stream<BookSummary> streamAllSummaries();
 }
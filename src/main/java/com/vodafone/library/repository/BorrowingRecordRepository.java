@@ -1,11 +1,71 @@
 package com.vodafone.library.repository;
 
+import com.vodafone.library.dto.ActiveLoanStats;
+import com.vodafone.library.dto.BorrowingRecordSummary;
 import com.vodafone.library.model.BorrowingRecord;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long> {
-    List<BorrowingRecord> findByCustomerId(Long customerId);
-    List<BorrowingRecord> findByBookId(Long bookId);
+    @Override
+    @EntityGraph(attributePaths = {"customer", "book", "book.author"})
+    Optional<BorrowingRecord> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = {"customer", "book"})
+    List<BorrowingRecord> findAllById(Iterable<Long> ids);
+
+    @Query("select new com.vodafone.library.dto.BorrowingRecordSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r join r.customer c join r.book b where r.id > :afterId order by r.id")
+    List<BorrowingRecordSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.vodafone.library.dto.BorrowingRecordSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r join r.customer c join r.book b where c.id = :customerId and r.id > :afterId order by r.id")
+    List<BorrowingRecordSummary> findSummariesByCustomerIdAfter(@Param("customerId") Long customerId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.vodafone.library.dto.BorrowingRecordSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r join r.customer c join r.book b where b.id = :bookId and r.id > :afterId order by r.id")
+    List<BorrowingRecordSummary> findSummariesByBookIdAfter(@Param("bookId") Long bookId, @Param("afterId") Long afterId, Limit limit);
+
+    // A return deletes its record, so the table only ever holds open loans: these read the customer's
+    // rows through the (customer_id, id) index and never touch returned history.
+    @Query("select new com.vodafone.library.dto.BorrowingRecordSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r join r.customer c join r.book b where c.id = :customerId order by r.returnDate nulls last, r.id")
+    List<BorrowingRecordSummary> findActiveSummariesByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("select new com.vodafone.library.dto.ActiveLoanStats(count(r), count(distinct r.customer.id), count(distinct r.book.id), " +
+            "coalesce(sum(case when r.returnDate < :today then 1L else 0L end), 0L)) from BorrowingRecord r")
+    ActiveLoanStats findActiveLoanStats(@Param("today") LocalDate today);
+
+    @Query("select new com.vodafone.library.dto.BorrowingRecordSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r join r.customer c join r.book b where r.id in :ids")
+    List<BorrowingRecordSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // The overdue scan's two inputs, each read in index order so neither needs a sort
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.id from BorrowingRecord r where r.returnDate >= :from and r.returnDate < :before order by r.returnDate, r.id")
+    Stream<Long> streamIdsDueBetween(@Param("from") LocalDate from, @Param("before") LocalDate before);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.id from BorrowingRecord r where r.lastModified >= :since order by r.lastModified, r.id")
+    Stream<Long> streamIdsModifiedSince(@Param("since") LocalDateTime since);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.vodafone.library.dto.BorrowingRecordSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r join r.customer c join r.book b order by r.id")
+    Stream<BorrowingRecordSummary> streamAllSummaries();
 }
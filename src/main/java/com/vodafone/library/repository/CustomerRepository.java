@@ -1,7 +1,26 @@
 package com.vodafone.library.repository;
 
+import com.vodafone.library.dto.CustomerSummary;
 import com.vodafone.library.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    @Query("select new com.vodafone.library.dto.CustomerSummary(c.id, c.name, c.email, c.phoneNumber, c.address) from Customer c order by c.id")
+    List<CustomerSummary> findAllSummaries();
+
+    Optional<Customer> findByEmail(String email);
+
+    // Used by the rehash-on-login path, which runs outside any request transaction
+    @Transactional
+    @Modifying
+    @Query("update Customer c set c.password = :password where c.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
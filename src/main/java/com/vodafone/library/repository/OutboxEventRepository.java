@@ -0,0 +1,15 @@
+package com.vodafone.library.repository;
+
+import com.vodafone.library.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // The oldest events waiting to be relayed
+    @Query("select e from OutboxEvent e order by e.id")
+    List<OutboxEvent> findBatch(Limit limit);
+}
@@ -0,0 +1,28 @@
+package com.vodafone.library.repository;
+
+import com.vodafone.library.dto.OverdueLoanSummary;
+import com.vodafone.library.model.OverdueLoan;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface OverdueLoanRepository extends JpaRepository<OverdueLoan, Long> {
+
+    // Clears the persistence context, so rows read before the delete can be inserted again
+    @Modifying(clearAutomatically = true)
+    @Query("delete from OverdueLoan o where o.borrowingRecordId in :ids")
+    int deleteByBorrowingRecordIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.vodafone.library.dto.OverdueLoanSummary(o.borrowingRecordId, c.id, c.name, b.id, b.title, o.dueDate, o.detectedAt) " +
+            "from OverdueLoan o join Customer c on c.id = o.customerId join Book b on b.id = o.bookId order by o.dueDate, o.borrowingRecordId")
+    Stream<OverdueLoanSummary> streamAllSummaries();
+}
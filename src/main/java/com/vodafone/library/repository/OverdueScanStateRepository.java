@@ -0,0 +1,7 @@
+package com.vodafone.library.repository;
+
+import com.vodafone.library.model.OverdueScanState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OverdueScanStateRepository extends JpaRepository<OverdueScanState, Integer> {
+}
@@ -0,0 +1,18 @@
+package com.vodafone.library.repository;
+
+import com.vodafone.library.dto.AuthorSummary;
+import com.vodafone.library.model.AuthorRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAuthorRepository extends R2dbcRepository<AuthorRow, Long> {
+
+    @Query("select a.id, a.name, a.birth_date, a.nationality from author a where a.id = :id")
+    Mono<AuthorSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("select a.id, a.name, a.birth_date, a.nationality from author a order by a.id")
+    Flux<AuthorSummary> streamAllSummaries();
+}
@@ -0,0 +1,36 @@
+package com.vodafone.library.repository;
+
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.model.BookRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// Same queries as the summary projections in BookRepository, in SQL against the same tables.
+public interface ReactiveBookRepository extends R2dbcRepository<BookRow, Long> {
+
+    String SELECT_SUMMARY = "select b.id, b.title, b.isbn, b.publication_date, b.genre, b.available, a.id as author_id, a.name as author_name " +
+            "from book b join author a on a.id = b.author_id ";
+
+    @Query(SELECT_SUMMARY + "where b.id > :afterId order by b.id limit :limit")
+    Flux<BookSummary> findSummariesAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Query(SELECT_SUMMARY + "where b.id = :id")
+    Mono<BookSummary> findSummaryById(@Param("id") Long id);
+
+    @Query(SELECT_SUMMARY + "where b.id in (:ids)")
+    Flux<BookSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_SUMMARY + "where a.id = :authorId order by b.id")
+    Flux<BookSummary> findSummariesByAuthorId(@Param("authorId") Long authorId);
+
+    @Query(SELECT_SUMMARY + "where b.isbn = :isbn")
+    Flux<BookSummary> findSummariesByIsbn(@Param("isbn") String isbn);
+
+    @Query(SELECT_SUMMARY + "order by b.id")
+    Flux<BookSummary> streamAllSummaries();
+}
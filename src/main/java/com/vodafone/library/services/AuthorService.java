@@ -1,13 +1,19 @@
 package com.vodafone.library.services;
 
+import com.vodafone.library.config.CacheConfig;
+import com.vodafone.library.dto.AuthorSummary;
 import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
 import com.vodafone.library.repository.AuthorRepository;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,14 +23,26 @@ public class AuthorService {
 
     @Autowired
     private AuthorRepository authorRepository;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+    @Autowired
+    private CatalogueCache catalogueCache;
+    @Autowired
+    private BookService bookService;
 
-    public ResponseEntity<List<Author>> getAllAuthors() {
-        return new ResponseEntity<>(authorRepository.findAll(), HttpStatus.OK);
+    public ResponseEntity<List<AuthorSummary>> getAllAuthors() {
+        return new ResponseEntity<>(authorRepository.findAllSummaries(), HttpStatus.OK);
     }
 
+    // The cached author outlives its session, so its books are loaded up front instead of lazily during serialization.
+    @Cacheable(cacheNames = CacheConfig.AUTHORS, key = "#id", unless = "#result.statusCode.value() != 200")
+    @Transactional(readOnly = true)
     public ResponseEntity<Author> getAuthorById(Long id) {
         return authorRepository.findById(id)
-                .map(author -> new ResponseEntity<>(author, HttpStatus.OK))
+                .map(author -> {
+                    Hibernate.initialize(author.getBooks());
+                    return new ResponseEntity<>(author, HttpStatus.OK);
+                })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -38,14 +56,24 @@ public class AuthorService {
                     author.setName(authorDetails.getName());
                     author.setBirthDate(authorDetails.getBirthDate());
                     author.setNationality(authorDetails.getNationality());
-                    return new ResponseEntity<>(authorRepository.save(author), HttpStatus.OK);
+                    Author savedAuthor = authorRepository.save(author);
+                    bookSearchIndex.updateAuthorName(id, savedAuthor.getName());
+                    catalogueCache.evictAuthor(id);
+                    return new ResponseEntity<>(savedAuthor, HttpStatus.OK);
                 }).orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    // The author's books go with it by cascade, so each is handled as if deleted on its own, in the same
+    // transaction, so their events and evictions only take effect if the whole delete commits.
+    @Transactional
     public ResponseEntity<?> deleteAuthor(Long id) {
         return authorRepository.findById(id)
                 .map(author -> {
+                    List<Book> books = List.copyOf(author.getBooks());
                     authorRepository.deleteById(id);
+                    books.forEach(bookService::bookDeleted);
+                    AfterCommit.run(() -> bookSearchIndex.removeAuthor(id));
+                    catalogueCache.evictAuthor(id);
                     return new ResponseEntity<>(HttpStatus.OK);
                 }).orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
@@ -0,0 +1,153 @@
+package com.vodafone.library.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.vodafone.library.dto.BookAvailability;
+import com.vodafone.library.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+// Available-copy counts per book, kept in memory so "is anything on the shelf" needs no database read.
+// Counts are adjusted in place after a checkout or return commits; Caffeine's map locks per hash bin,
+// so concurrent checkouts of different books never contend. The database stays the authority: a stale
+// count can only send a checkout to the conditional update, and entries are reloaded a fixed time after
+// they were loaded (adjustments do not extend it), which bounds drift between instances. Every adjusted
+// count of a book someone subscribed to is handed to AvailabilityFeed inside the entry's compute, so
+// subscribers see a book's counts in the order they were applied; the feed only records it there and
+// fans it out on its own thread. Checkouts on other instances and counts a reload finds changed never
+// pass through here, so the books subscribers watch are also re-read every `refresh-interval`.
+@Component
+public class AvailabilityCache {
+
+    private static final int REFRESH_BATCH = 1000;
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AvailabilityFeed availabilityFeed;
+
+    @Value("${library.availability.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${library.availability.maximum-size:100000}")
+    private long maximumSize;
+
+    private LoadingCache<Long, Integer> availableCopies;
+
+    @PostConstruct
+    void start() {
+        availableCopies = Caffeine.newBuilder()
+                .expireAfter(new Expiry<Long, Integer>() {
+                    @Override
+                    public long expireAfterCreate(Long bookId, Integer copies, long currentTime) {
+                        return ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long bookId, Integer copies, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long bookId, Integer copies, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(maximumSize)
+                .build(bookId -> bookRepository.findAvailableCopies(bookId).orElse(null));
+    }
+
+    // Empty when the book does not exist
+    public OptionalInt availableCopies(Long bookId) {
+        Integer copies = availableCopies.get(bookId);
+        return copies == null ? OptionalInt.empty() : OptionalInt.of(copies);
+    }
+
+    public void borrowed(Collection<Long> bookIds) {
+        AfterCommit.run(() -> bookIds.forEach(bookId -> adjust(bookId, -1)));
+    }
+
+    public void returned(Map<Long, Integer> copiesByBook) {
+        AfterCommit.run(() -> copiesByBook.forEach(this::adjust));
+    }
+
+    // A resize changes the count without a checkout or return, so subscribers get the reloaded one
+    public void evict(Long bookId) {
+        AfterCommit.run(() -> {
+            availableCopies.invalidate(bookId);
+            if (availabilityFeed.watched(bookId)) {
+                publish(List.of(bookId));
+            }
+        });
+    }
+
+    // Sends the current count of each book to its subscribers, loading the ones not cached
+    public void publish(Collection<Long> bookIds) {
+        for (Long bookId : bookIds) {
+            availableCopies.get(bookId);
+            availableCopies.asMap().computeIfPresent(bookId, (id, copies) -> {
+                availabilityFeed.changed(id, copies);
+                return copies;
+            });
+        }
+    }
+
+    // Re-reads the watched books, a batch per query, and publishes every count that differs from the
+    // cached one or was no longer cached. An every-book subscriber watches the books cached here, which
+    // are the ones this instance used within the TTL. Like any load, the read can race a local checkout
+    // whose adjustment is still to come; the TTL bounds that drift.
+    @Scheduled(fixedDelayString = "${library.availability.feed.refresh-interval:PT30S}")
+    public void refreshWatched() {
+        Set<Long> bookIds = new HashSet<>(availabilityFeed.watchedBooks());
+        if (availabilityFeed.followsEveryBook()) {
+            bookIds.addAll(availableCopies.asMap().keySet());
+        }
+        List<Long> batch = new ArrayList<>(REFRESH_BATCH);
+        for (Long bookId : bookIds) {
+            batch.add(bookId);
+            if (batch.size() == REFRESH_BATCH) {
+                refresh(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            refresh(batch);
+        }
+    }
+
+    private void refresh(List<Long> bookIds) {
+        for (BookAvailability current : bookRepository.findAvailabilityByIdIn(bookIds)) {
+            availableCopies.asMap().compute(current.bookId(), (id, copies) -> {
+                if (copies == null || copies != current.availableCopies()) {
+                    availabilityFeed.changed(id, current.availableCopies());
+                }
+                return current.availableCopies();
+            });
+        }
+    }
+
+    // A subscribed book that is not cached is loaded, so its subscribers still hear of the change
+    private void adjust(Long bookId, int delta) {
+        Integer adjusted = availableCopies.asMap().computeIfPresent(bookId, (id, copies) -> {
+            int updated = Math.max(0, copies + delta);
+            availabilityFeed.changed(id, updated);
+            return updated;
+        });
+        if (adjusted == null && availabilityFeed.watched(bookId)) {
+            publish(List.of(bookId));
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookAvailability;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes available-copy counts to Server-Sent Events subscribers as AvailabilityCache applies checkouts
+// and returns. A change costs its caller one map put: the latest count per book waits in `changes`
+// for a single dispatcher thread, which puts it in each subscriber's pending map (again latest count per
+// book) and queues the subscriber on a small sender pool that drains it. A subscriber that falls
+// `buffer-size` distinct books behind has its pending counts dropped and is sent one `resync` event
+// instead, so a slow client costs bounded memory and never holds up a checkout. An idle subscriber holds
+// no map and no thread, only its emitter and its entries in the per-book index. Every `heartbeat` each
+// subscriber gets a comment line, which keeps proxies from closing the stream and finds clients that
+// went away. Sending is blocking servlet I/O: a send still running after `send-timeout` marks a client
+// that stopped reading, so it is unsubscribed and the pool gets a thread in place of the one it holds
+// until the container's write timeout ends it. Subscribers to every book get every change, so there are
+// at most `max-all-books-subscribers` of them.
+@Component
+public class AvailabilityFeed {
+
+    public static final String AVAILABILITY_EVENT = "availability";
+    public static final String RESYNC_EVENT = "resync";
+
+    // Subscriber.sendingSince of a send the timer gave up on
+    private static final long STUCK = -1;
+
+    @Value("${library.availability.feed.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    @Value("${library.availability.feed.max-all-books-subscribers:100}")
+    private int maxAllBooksSubscribers;
+
+    @Value("${library.availability.feed.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${library.availability.feed.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${library.availability.feed.heartbeat:30s}")
+    private Duration heartbeat;
+
+    @Value("${library.availability.feed.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${library.availability.feed.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    private final Map<Long, Set<Subscriber>> subscribersByBook = new ConcurrentHashMap<>();
+    // Subscribers to every book
+    private final Set<Subscriber> allBooks = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicInteger allBooksSubscribers = new AtomicInteger();
+    // Latest count per book not yet fanned out, and the books in the order they first changed
+    private final Map<Long, Integer> changes = new ConcurrentHashMap<>();
+    private final BlockingQueue<Long> changedBooks = new LinkedBlockingQueue<>();
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor senders;
+    private ScheduledExecutorService timer;
+    private Thread dispatcher;
+    private int stuckSends;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger count = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> daemon(runnable, "availability-feed-" + count.incrementAndGet()));
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "availability-feed-timer"));
+        timer.scheduleWithFixedDelay(this::ping, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        long check = Math.max(1, sendTimeout.toMillis() / 2);
+        timer.scheduleWithFixedDelay(this::closeStuckSubscribers, check, check, TimeUnit.MILLISECONDS);
+        dispatcher = daemon(this::dispatch, "availability-feed-dispatcher");
+        dispatcher.start();
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+        timer.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    // Null when the feed, or for no book ids its every-book share, is full. No book ids subscribes to
+    // every book.
+    public SseEmitter subscribe(Collection<Long> bookIds) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return null;
+        }
+        if (bookIds.isEmpty() && allBooksSubscribers.incrementAndGet() > maxAllBooksSubscribers) {
+            allBooksSubscribers.decrementAndGet();
+            subscribers.decrementAndGet();
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(newEmitter(timeout.toMillis()), bookIds.stream().mapToLong(Long::longValue).distinct().toArray());
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+        if (subscriber.bookIds.length == 0) {
+            allBooks.add(subscriber);
+        }
+        for (long bookId : subscriber.bookIds) {
+            subscribersByBook.compute(bookId, (id, watchers) -> {
+                Set<Subscriber> subscribed = watchers == null ? ConcurrentHashMap.newKeySet() : watchers;
+                subscribed.add(subscriber);
+                return subscribed;
+            });
+        }
+        return subscriber.emitter;
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    public boolean watched(Long bookId) {
+        return !allBooks.isEmpty() || subscribersByBook.containsKey(bookId);
+    }
+
+    public boolean followsEveryBook() {
+        return !allBooks.isEmpty();
+    }
+
+    // The books with a subscriber of their own
+    public Set<Long> watchedBooks() {
+        return subscribersByBook.keySet();
+    }
+
+    // Called by AvailabilityCache with the book's new count, inside the compute that applied it, so the
+    // counts of a book are recorded in the order they were applied. Only the latest is kept until the
+    // dispatcher takes it.
+    public void changed(Long bookId, int copies) {
+        if (watched(bookId) && changes.put(bookId, copies) == null) {
+            changedBooks.add(bookId);
+        }
+    }
+
+    public int size() {
+        return subscribers.get();
+    }
+
+    private void dispatch() {
+        try {
+            while (true) {
+                Long bookId = changedBooks.take();
+                Integer copies = changes.remove(bookId);
+                if (copies == null) {
+                    continue;
+                }
+                allBooks.forEach(subscriber -> subscriber.offer(bookId, copies));
+                Set<Subscriber> watchers = subscribersByBook.get(bookId);
+                if (watchers != null) {
+                    watchers.forEach(subscriber -> subscriber.offer(bookId, copies));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private void ping() {
+        allBooks.forEach(Subscriber::ping);
+        subscribersByBook.values().forEach(watchers -> watchers.forEach(Subscriber::ping));
+    }
+
+    private void closeStuckSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : sending) {
+            long since = subscriber.sendingSince.get();
+            if (since > 0 && now - since > sendTimeout.toMillis() && subscriber.sendingSince.compareAndSet(since, STUCK)) {
+                subscriber.close();
+                resizeSenders(1);
+            }
+        }
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        stuckSends += delta;
+        int size = senderThreads + stuckSends;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final long[] bookIds;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // When the running send started, 0 between sends, or STUCK
+        private final AtomicLong sendingSince = new AtomicLong();
+        // Latest count per book not yet sent; null while there is none
+        private Map<Long, Integer> pending;
+        private boolean overflowed;
+        private boolean pingDue;
+
+        private Subscriber(SseEmitter emitter, long[] bookIds) {
+            this.emitter = emitter;
+            this.bookIds = bookIds;
+        }
+
+        private void offer(Long bookId, int copies) {
+            synchronized (this) {
+                if (overflowed) {
+                    return; // A resync is on its way; it covers this change too
+                }
+                if (pending == null) {
+                    pending = new HashMap<>();
+                }
+                if (pending.size() >= bufferSize && !pending.containsKey(bookId)) {
+                    pending = null;
+                    overflowed = true;
+                } else {
+                    pending.put(bookId, copies);
+                }
+            }
+            schedule();
+        }
+
+        private void ping() {
+            synchronized (this) {
+                pingDue = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // Only one drain per subscriber runs at a time, so its events go out in the order they were taken
+        private void drain() {
+            do {
+                Map<Long, Integer> batch;
+                boolean resync;
+                boolean ping;
+                synchronized (this) {
+                    batch = pending;
+                    resync = overflowed;
+                    ping = pingDue;
+                    pending = null;
+                    overflowed = false;
+                    pingDue = false;
+                }
+                send(batch, resync, ping);
+                scheduled.set(false);
+            } while (hasWork() && !closed.get() && scheduled.compareAndSet(false, true));
+        }
+
+        private synchronized boolean hasWork() {
+            return pending != null || overflowed || pingDue;
+        }
+
+        private void send(Map<Long, Integer> batch, boolean resync, boolean ping) {
+            sendingSince.set(System.currentTimeMillis());
+            sending.add(this);
+            try {
+                if (resync) {
+                    emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(""));
+                } else if (batch != null) {
+                    for (Map.Entry<Long, Integer> change : batch.entrySet()) {
+                        int copies = change.getValue();
+                        emitter.send(SseEmitter.event().name(AVAILABILITY_EVENT)
+                                .data(new BookAvailability(change.getKey(), copies, copies > 0), MediaType.APPLICATION_JSON));
+                    }
+                } else if (ping) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(); // The client went away or the stream already ended; the container completes it
+            } finally {
+                sending.remove(this);
+                if (sendingSince.getAndSet(0) == STUCK) {
+                    resizeSenders(-1); // The thread standing in for this one is no longer needed
+                }
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (bookIds.length == 0) {
+                allBooks.remove(this);
+                allBooksSubscribers.decrementAndGet();
+            }
+            for (long bookId : bookIds) {
+                subscribersByBook.computeIfPresent(bookId, (id, watchers) -> {
+                    watchers.remove(this);
+                    return watchers.isEmpty() ? null : watchers;
+                });
+            }
+            subscribers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.model.Book;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over book title, author name and genre. Terms are kept sorted so a
+// query token matches every term it is a prefix of with a single range lookup.
+@Component
+public class BookSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int GENRE_WEIGHT = 1;
+    private static final int EXACT_MATCH_BONUS = 2;
+    // Shorter tokens match whole terms only; as prefixes they would cover much of the vocabulary, and
+    // every posting list in range is merged before the limit applies
+    static final int MIN_PREFIX_LENGTH = 3;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedBook> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> booksByAuthor = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record IndexedBook(Long authorId, String title, String authorName, String genre) {
+    }
+
+    public void index(Book book) {
+        Long authorId = book.getAuthor() == null ? null : book.getAuthor().getId();
+        String authorName = book.getAuthor() == null ? null : book.getAuthor().getName();
+        index(book.getId(), new IndexedBook(authorId, book.getTitle(), authorName, book.getGenre()));
+    }
+
+    public void index(BookSummary book) {
+        index(book.id(), new IndexedBook(book.authorId(), book.title(), book.authorName(), book.genre()));
+    }
+
+    private void index(Long bookId, IndexedBook document) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            addDocument(bookId, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateAuthorName(Long authorId, String authorName) {
+        lock.writeLock().lock();
+        try {
+            for (Long bookId : new ArrayList<>(booksByAuthor.getOrDefault(authorId, Set.of()))) {
+                IndexedBook old = documents.get(bookId);
+                removeDocument(bookId);
+                addDocument(bookId, new IndexedBook(authorId, old.title(), authorName, old.genre()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAuthor(Long authorId) {
+        lock.writeLock().lock();
+        try {
+            for (Long bookId : new ArrayList<>(booksByAuthor.getOrDefault(authorId, Set.of()))) {
+                removeDocument(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            booksByAuthor.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every query token has to match (as a whole term or, from MIN_PREFIX_LENGTH characters, as a prefix of one). Books are ranked by the
+    // sum of the best field weight per token, with whole-term matches counting double.
+    public List<Long> search(String query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Map<Long, Integer> matches = new HashMap<>();
+                NavigableMap<String, Map<Long, Integer>> terms = token.length() < MIN_PREFIX_LENGTH
+                        ? postings.subMap(token, true, token, true)
+                        : postings.subMap(token, true, token + Character.MAX_VALUE, false);
+                for (Map.Entry<String, Map<Long, Integer>> term : terms.entrySet()) {
+                    int bonus = term.getKey().length() == token.length() ? EXACT_MATCH_BONUS : 1;
+                    term.getValue().forEach((bookId, weight) -> matches.merge(bookId, weight * bonus, Math::max));
+                }
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((bookId, score) -> score + matches.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.<Long, Integer>comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private void addDocument(Long bookId, IndexedBook document) {
+        documents.put(bookId, document);
+        if (document.authorId() != null) {
+            booksByAuthor.computeIfAbsent(document.authorId(), id -> new HashSet<>()).add(bookId);
+        }
+        terms(document).forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(bookId, weight));
+    }
+
+    private void removeDocument(Long bookId) {
+        IndexedBook document = documents.remove(bookId);
+        if (document == null) {
+            return;
+        }
+        Set<Long> authorBooks = booksByAuthor.get(document.authorId());
+        if (authorBooks != null) {
+            authorBooks.remove(bookId);
+            if (authorBooks.isEmpty()) {
+                booksByAuthor.remove(document.authorId());
+            }
+        }
+        for (String term : terms(document).keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(bookId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Integer> terms(IndexedBook document) {
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(document.title()).forEach(term -> terms.merge(term, TITLE_WEIGHT, Math::max));
+        tokenize(document.authorName()).forEach(term -> terms.merge(term, AUTHOR_WEIGHT, Math::max));
+        tokenize(document.genre()).forEach(term -> terms.merge(term, GENRE_WEIGHT, Math::max));
+        return terms;
+    }
+}
@@ -1,18 +1,47 @@
 package com.vodafone.library.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vodafone.library.config.CacheConfig;
+import com.vodafone.library.dto.BookAvailability;
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.dto.BookUpdateRequest;
+import com.vodafone.library.dto.BorrowerEstimate;
+import com.vodafone.library.dto.CirculationEventType;
+import com.vodafone.library.dto.RelatedBook;
+import com.vodafone.library.dto.TrendingBook;
+import com.vodafone.library.dto.TrendingReport;
+import com.vodafone.library.dto.TrendingWindow;
 import com.vodafone.library.model.Author;
 import com.vodafone.library.model.Book;
+import com.vodafone.library.repository.AuthorRepository;
 import com.vodafone.library.repository.BookRepository;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 
@@ -20,57 +49,240 @@ public class BookService {
 
     @Autowired
     private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+    @Autowired
+    private CatalogueCache catalogueCache;
+    @Autowired
+    private AvailabilityCache availabilityCache;
+    @Autowired
+    private RelatedBooksIndex relatedBooksIndex;
+    @Autowired
+    private BorrowingTrends borrowingTrends;
+    @Autowired
+    private CirculationOutbox circulationOutbox;
+    @Autowired
+    private AvailabilityFeed availabilityFeed;
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Keyset pagination on id: the client passes back the last id it saw instead of an offset,
+    // so every page is an index range scan no matter how deep into the catalogue it is.
+    public ResponseEntity<List<BookSummary>> getAllBooks(Long afterId, int size) {
+        Limit limit = Pagination.limit(size);
+        List<BookSummary> books = bookRepository.findSummariesAfter(Pagination.after(afterId), limit);
+        return new ResponseEntity<>(books, Pagination.cursorHeaders(books, limit, BookSummary::id), HttpStatus.OK);
+    }
 
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return new ResponseEntity<>(bookRepository.findAll(), HttpStatus.OK);
+    // Writes the whole catalogue as NDJSON straight off a database cursor. Rows are read as projections,
+    // so nothing is added to the persistence context no matter how large the catalogue is.
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream outputStream) throws IOException {
+        try (Stream<BookSummary> books = bookRepository.streamAllSummaries()) {
+            Iterator<BookSummary> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                outputStream.write('\n');
+            }
+        }
+        outputStream.flush();
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildSearchIndex() {
+        bookSearchIndex.clear();
+        try (Stream<BookSummary> books = bookRepository.streamAllSummaries()) {
+            books.forEach(bookSearchIndex::index);
+        }
+    }
+
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id", unless = "#result.statusCode.value() != 200")
     public ResponseEntity<Book> getBookById(Long id) {
         return bookRepository.findById(id)
                 .map(book -> new ResponseEntity<>(book, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    // A new book starts with every copy on the shelf
+    @Transactional
     public ResponseEntity<Book> createBook(Book book) {
-        return new ResponseEntity<>(bookRepository.save(book), HttpStatus.CREATED);
+        book.setAvailableCopies(book.getTotalCopies());
+        book.setAvailable(book.getTotalCopies() > 0);
+        Book savedBook = indexed(bookRepository.save(book));
+        circulationOutbox.record(CirculationEventType.BOOK_CREATED, savedBook.getId(), null, null);
+        catalogueCache.evictBook(savedBook);
+        return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
     }
 
-    public ResponseEntity<Book> updateBook(Long id, Book bookDetails) {
+    // Availability is owned by checkouts and returns; an update can only change how many copies exist,
+    // through the same kind of conditional update, and is refused if more copies are out than remain.
+    // Copies are only resized when the request gives a total, and added copies go to holds first.
+    @Transactional
+    public ResponseEntity<Book> updateBook(Long id, BookUpdateRequest bookDetails) {
         return bookRepository.findById(id)
                 .map(book -> {
-                    book.setAuthor(bookDetails.getAuthor());
-                    book.setIsbn(bookDetails.getIsbn());
-                    book.setAvailable(bookDetails.getAvailable());
-                    book.setGenre(bookDetails.getGenre());
-                    book.setTitle(bookDetails.getTitle());
-                    book.setPublicationDate(bookDetails.getPublicationDate());
-                    return new ResponseEntity<>(bookRepository.save(book), HttpStatus.OK);
+                    if (bookDetails.totalCopies() != null && bookDetails.totalCopies() != book.getTotalCopies()) {
+                        if (bookRepository.resizeCopies(id, bookDetails.totalCopies()) == 0) {
+                            return new ResponseEntity<Book>(HttpStatus.CONFLICT);
+                        }
+                        int added = bookDetails.totalCopies() - book.getTotalCopies();
+                        int handedOff = added > 0 ? borrowingRecordService.handOff(book, added) : 0;
+                        if (handedOff > 0) {
+                            bookRepository.lendCopies(id, handedOff); // The resize holds the row lock, so they are still there
+                        }
+                        availabilityCache.evict(id);
+                        int availableCopies = bookRepository.findAvailableCopies(id).orElse(0);
+                        book.setTotalCopies(bookDetails.totalCopies());
+                        book.setAvailableCopies(availableCopies);
+                        book.setAvailable(availableCopies > 0);
+                    }
+                    catalogueCache.evictBook(book);
+                    book.setAuthor(bookDetails.author());
+                    book.setIsbn(bookDetails.isbn());
+                    book.setGenre(bookDetails.genre());
+                    book.setTitle(bookDetails.title());
+                    book.setPublicationDate(bookDetails.publicationDate());
+                    Book savedBook = indexed(bookRepository.save(book));
+                    circulationOutbox.record(CirculationEventType.BOOK_UPDATED, id, null, null);
+                    catalogueCache.evictBook(savedBook);
+                    return new ResponseEntity<>(savedBook, HttpStatus.OK);
                 }).orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @Transactional
     public ResponseEntity<?> deleteBook(Long id) {
         return bookRepository.findById(id)
                 .map(book -> {
-                    if(!book.getAvailable()){
+                    if(book.getAvailableCopies() < book.getTotalCopies()){
                         return ResponseEntity.badRequest().body("Book is borrowed!");
                     }
                     bookRepository.deleteById(id);
+                    bookDeleted(book);
                     return new ResponseEntity<>(HttpStatus.OK);
                 }).orElse(new ResponseEntity<>("Resource not found", HttpStatus.NOT_FOUND));
     }
 
-    public ResponseEntity<List<Book>> searchByTitle(String title) {
-        List<Book> books = bookRepository.findByTitleContaining(title);
+    // Everything a deleted book leaves behind outside its row, whether it went on its own or with its
+    // author. Called inside the deleting transaction; the indexes only drop it once that commits.
+    public void bookDeleted(Book book) {
+        Long id = book.getId();
+        circulationOutbox.record(CirculationEventType.BOOK_DELETED, id, null, null);
+        AfterCommit.run(() -> {
+            bookSearchIndex.remove(id);
+            relatedBooksIndex.remove(id);
+            borrowingTrends.remove(id);
+        });
+        catalogueCache.evictBook(book);
+        availabilityCache.evict(id);
+    }
+
+    // Served from the availability cache, so polling a popular title does not touch the database
+    public ResponseEntity<BookAvailability> getAvailability(Long id) {
+        OptionalInt availableCopies = availabilityCache.availableCopies(id);
+        if (availableCopies.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        int copies = availableCopies.getAsInt();
+        return new ResponseEntity<>(new BookAvailability(id, copies, copies > 0), HttpStatus.OK);
+    }
+
+    // Pushes each book's available-copy count as it changes instead of the client polling for it. The
+    // current counts are sent first, through the same path as changes, so nothing falls in between.
+    // No book ids follows every book.
+    public ResponseEntity<SseEmitter> subscribeAvailability(List<Long> bookIds) {
+        Set<Long> ids = new LinkedHashSet<>(bookIds);
+        if (ids.size() > Pagination.MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (ids.stream().anyMatch(id -> availabilityCache.availableCopies(id).isEmpty())) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        SseEmitter emitter = availabilityFeed.subscribe(ids);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        availabilityCache.publish(ids);
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+
+    // "Also borrowed" comes from the in-memory co-borrowing model; only the ranked books are loaded from
+    // the database, and ones deleted since they were counted drop out there.
+    public ResponseEntity<List<RelatedBook>> getRelatedBooks(Long id, int limit) {
+        List<RelatedBooksIndex.Related> related = relatedBooksIndex.related(id, Pagination.limit(limit).max());
+        if (related.isEmpty()) {
+            return bookRepository.existsById(id)
+                    ? new ResponseEntity<>(List.of(), HttpStatus.OK)
+                    : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        Map<Long, BookSummary> booksById = bookRepository.findSummariesByIdIn(related.stream().map(RelatedBooksIndex.Related::bookId).toList()).stream()
+                .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        List<RelatedBook> books = related.stream()
+                .filter(book -> booksById.containsKey(book.bookId()))
+                .map(book -> new RelatedBook(booksById.get(book.bookId()), book.coBorrowers(), book.score()))
+                .toList();
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
 
-    public ResponseEntity<List<Book>> searchByAuthorId(Long id) {
-        List<Book> books = bookRepository.findByAuthorId(id);
+    // Borrow counts and borrower totals come from the in-memory sketches; only the top books are loaded
+    // from the database, and ones deleted since drop out there.
+    public ResponseEntity<TrendingReport> getTrendingBooks(TrendingWindow window, int limit) {
+        BorrowingTrends.Trend trend = borrowingTrends.trending(window, Pagination.limit(limit).max());
+        List<TrendingBook> books = List.of();
+        if (!trend.books().isEmpty()) {
+            Map<Long, BookSummary> booksById = bookRepository.findSummariesByIdIn(trend.books().stream().map(BorrowingTrends.HeavyHitter::bookId).toList()).stream()
+                    .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+            books = trend.books().stream()
+                    .filter(book -> booksById.containsKey(book.bookId()))
+                    .map(book -> new TrendingBook(booksById.get(book.bookId()), book.borrows()))
+                    .toList();
+        }
+        return new ResponseEntity<>(new TrendingReport(window, trend.borrows(), trend.uniqueBorrowers(), books), HttpStatus.OK);
+    }
+
+    // Existence is checked against the availability cache, so this normally needs no database read
+    public ResponseEntity<BorrowerEstimate> getUniqueBorrowers(Long id) {
+        if (availabilityCache.availableCopies(id).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(new BorrowerEstimate(id, borrowingTrends.uniqueBorrowers(id)), HttpStatus.OK);
+    }
+
+    // Title search goes through the in-memory index; only the ranked hits are loaded from the database.
+    public ResponseEntity<List<BookSummary>> searchByTitle(String title) {
+        List<Long> ids = bookSearchIndex.search(title, Pagination.MAX_PAGE_SIZE);
+        if (ids.isEmpty()) {
+            return new ResponseEntity<>(List.of(), HttpStatus.OK);
+        }
+        Map<Long, BookSummary> booksById = bookRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        List<BookSummary> books = ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
 
-    public ResponseEntity<List<Book>> searchByIsbn(String isbn) {
-        List<Book> books = bookRepository.findByIsbn(isbn);
+    public ResponseEntity<List<BookSummary>> searchByAuthorId(Long id) {
+        List<BookSummary> books = bookRepository.findSummariesByAuthorId(id);
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
+
+    @Cacheable(cacheNames = CacheConfig.BOOKS_BY_ISBN, key = "#isbn")
+    public ResponseEntity<List<BookSummary>> searchByIsbn(String isbn) {
+        List<BookSummary> books = bookRepository.findSummariesByIsbn(isbn);
+        return new ResponseEntity<>(books, HttpStatus.OK);
+    }
+
+    // A book posted with only an author id carries an empty author; load it so the author name gets indexed.
+    // Indexed once the save commits, so a write that fails at flush or commit leaves no phantom entry
+    private Book indexed(Book book) {
+        Author author = book.getAuthor();
+        if (author != null && author.getId() != null && author.getName() == null) {
+            authorRepository.findById(author.getId()).ifPresent(book::setAuthor);
+        }
+        AfterCommit.run(() -> bookSearchIndex.index(book));
+        return book;
+    }
 }
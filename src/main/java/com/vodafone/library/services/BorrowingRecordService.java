@@ -1,19 +1,42 @@
 package com.vodafone.library.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vodafone.library.dto.ActiveLoanStats;
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import com.vodafone.library.dto.BulkBorrowingRequest;
+import com.vodafone.library.dto.BulkReturnRequest;
+import com.vodafone.library.dto.CirculationEventType;
 import com.vodafone.library.model.Book;
 import com.vodafone.library.model.BorrowingRecord;
 import com.vodafone.library.model.Customer;
+import com.vodafone.library.model.OutboxEvent;
 import com.vodafone.library.repository.BookRepository;
 import com.vodafone.library.repository.BorrowingRecordRepository;
 import com.vodafone.library.repository.CustomerRepository;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class BorrowingRecordService {
@@ -24,10 +47,56 @@ public class BorrowingRecordService {
     private CustomerRepository customerRepository;
     @Autowired
     private BookRepository bookRepository;
+    @Autowired
+    private CatalogueCache catalogueCache;
+    @Autowired
+    private AvailabilityCache availabilityCache;
+    @Autowired
+    private RelatedBooksIndex relatedBooksIndex;
+    @Autowired
+    private BorrowingTrends borrowingTrends;
+    @Autowired
+    private HoldService holdService;
+    @Autowired
+    private CirculationOutbox circulationOutbox;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int EXPORT_WINDOW = 500;
+
+    @Value("${library.holds.loan-days:14}")
+    private int holdLoanDays;
+
+    public ResponseEntity<List<BorrowingRecordSummary>> getAllBorrowingRecords(Long afterId, int size) {
+        Limit limit = Pagination.limit(size);
+        List<BorrowingRecordSummary> borrowingRecords = borrowingRecordRepository.findSummariesAfter(Pagination.after(afterId), limit);
+        return new ResponseEntity<>(borrowingRecords, Pagination.cursorHeaders(borrowingRecords, limit, BorrowingRecordSummary::id), HttpStatus.OK);
+    }
 
-    public ResponseEntity<List<BorrowingRecord>> getAllBorrowingRecords() {
-        List<BorrowingRecord> borrowingRecords = borrowingRecordRepository.findAll();
-        return new ResponseEntity<>(borrowingRecords, HttpStatus.OK);
+    // Streams the full borrowing history as NDJSON. Rows are read as projections, so only the current
+    // fetch window is ever held in memory.
+    @Transactional(readOnly = true)
+    public void exportBorrowingRecords(OutputStream outputStream) throws IOException {
+        try (Stream<BorrowingRecordSummary> records = borrowingRecordRepository.streamAllSummaries()) {
+            Iterator<BorrowingRecordSummary> iterator = records.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                outputStream.write('\n');
+                if (++written % EXPORT_WINDOW == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+        outputStream.flush();
+    }
+
+    // Counts the "also borrowed" model from the loans on record; checkouts keep it current from then on.
+    // The index opens the stream itself, once it is collecting the checkouts that commit meanwhile.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildRelatedBooks() {
+        relatedBooksIndex.rebuild(borrowingRecordRepository::streamAllSummaries);
     }
 
     public ResponseEntity<BorrowingRecord> getBorrowingRecordById(Long id) {
@@ -36,26 +105,76 @@ public class BorrowingRecordService {
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    // The copy count check and decrement happen in one conditional UPDATE, so concurrent checkouts of
+    // the same book serialize on that row only and never take more copies than exist. A later failure
+    // rolls it back. The cached count is not consulted: it can lag a return on another instance by up to
+    // its TTL, and the update is the one statement that has to run anyway.
+    @Transactional
     public ResponseEntity<BorrowingRecord> createBorrowingRecord(BorrowingRecord borrowingRecord) {
-        System.out.println(borrowingRecord);
-        Book book = bookRepository.findById(borrowingRecord.getBook().getId())
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-        if (!book.getAvailable()) {
-            return new ResponseEntity<>(HttpStatus.CONFLICT); // Book is not available
-        }
+        Long bookId = borrowingRecord.getBook().getId();
         Customer customer = customerRepository.findById(borrowingRecord.getCustomer().getId())
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
-
-        book.setAvailable(false);
-        bookRepository.save(book);
+        if (bookRepository.markBorrowed(bookId) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found");
+            }
+            return new ResponseEntity<>(HttpStatus.CONFLICT); // Book is not available
+        }
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found"));
+        catalogueCache.evictBook(book);
+        availabilityCache.borrowed(List.of(bookId));
 
         borrowingRecord.setCustomer(customer);
         borrowingRecord.setBook(book);
 
         BorrowingRecord savedRecord = borrowingRecordRepository.save(borrowingRecord);
+        circulationOutbox.record(CirculationEventType.BOOK_BORROWED, bookId, customer.getId(), savedRecord.getId());
+        relatedBooksIndex.borrowed(savedRecord.getId(), customer.getId(), bookId);
+        borrowingTrends.borrowed(customer.getId(), List.of(bookId));
         return new ResponseEntity<>(savedRecord, HttpStatus.CREATED);
     }
 
+    // Front-desk checkout of several books for one customer: one select for the customer, one for the
+    // books, one conditional bulk update and batched inserts. Either every book is checked out or none.
+    @Transactional
+    public ResponseEntity<?> createBorrowingRecords(BulkBorrowingRequest request) {
+        Customer customer = customerRepository.findById(request.customerId())
+                .orElseThrow(() -> new RuntimeException("Customer not found"));
+        Set<Long> bookIds = new LinkedHashSet<>(request.bookIds());
+        List<Book> books = bookRepository.findAllById(bookIds);
+        if (books.size() != bookIds.size()) {
+            throw new RuntimeException("Book not found");
+        }
+        List<Long> unavailable = books.stream().filter(book -> !book.getAvailable()).map(Book::getId).toList();
+        if (!unavailable.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(unavailable);
+        }
+        if (bookRepository.markAllBorrowed(bookIds) != bookIds.size()) {
+            // Another checkout took one of the books after it was read above
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+
+        List<BorrowingRecord> records = new ArrayList<>(books.size());
+        for (Book book : books) {
+            records.add(new BorrowingRecord(null, customer, book, request.borrowDate(), request.returnDate()));
+            catalogueCache.evictBook(book);
+        }
+        availabilityCache.borrowed(bookIds);
+        List<BorrowingRecordSummary> saved = borrowingRecordRepository.saveAll(records).stream()
+                .map(record -> new BorrowingRecordSummary(record.getId(), customer.getId(), customer.getName(),
+                        record.getBook().getId(), record.getBook().getTitle(), record.getBorrowDate(), record.getReturnDate()))
+                .toList();
+        circulationOutbox.recordAll(saved.stream()
+                .map(record -> CirculationOutbox.event(CirculationEventType.BOOK_BORROWED, record.bookId(), record.customerId(), record.id()))
+                .toList());
+        saved.forEach(record -> relatedBooksIndex.borrowed(record.id(), record.customerId(), record.bookId()));
+        borrowingTrends.borrowed(customer.getId(), bookIds);
+        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+    }
+
+    @Transactional
     public ResponseEntity<?> updateBorrowingRecord(Long id, BorrowingRecord borrowingRecordDetails) {
         return borrowingRecordRepository.findById(id)
                 .map(borrowingRecord -> {
@@ -63,7 +182,7 @@ public class BorrowingRecordService {
                             .orElseThrow(() -> new RuntimeException("Customer not found"));
                     Book book = bookRepository.findById(borrowingRecordDetails.getBook().getId())
                             .orElseThrow(() -> new RuntimeException("Book not found"));
-                    if(book.getAvailable()){
+                    if(book.getAvailableCopies() == book.getTotalCopies()){
                         return ResponseEntity.badRequest().body("Book is not available for borrowing");
                     }
 
@@ -74,17 +193,24 @@ public class BorrowingRecordService {
                     borrowingRecord.setReturnDate(borrowingRecordDetails.getReturnDate());
 
                     BorrowingRecord updatedRecord = borrowingRecordRepository.save(borrowingRecord);
+                    circulationOutbox.record(CirculationEventType.LOAN_UPDATED, book.getId(), customer.getId(), id);
                     return new ResponseEntity<>(updatedRecord, HttpStatus.OK);
                 })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    // The copy goes to the oldest hold on the book if there is one, and back on the shelf otherwise
+    @Transactional
     public ResponseEntity<Void> deleteBorrowingRecord(Long id) {
         return borrowingRecordRepository.findById(id)
                 .map(borrowingRecord -> {
                     Book book = borrowingRecord.getBook();
-                    book.setAvailable(true); // Mark book as available again
-                    bookRepository.save(book);
+                    circulationOutbox.record(CirculationEventType.BOOK_RETURNED, book.getId(), borrowingRecord.getCustomer().getId(), id);
+                    // Put the copy back on the shelf; the cached count only follows a copy that went back
+                    if (handOff(book, 1) == 0 && bookRepository.markReturned(book.getId()) == 1) {
+                        availabilityCache.returned(Map.of(book.getId(), 1));
+                    }
+                    catalogueCache.evictBook(book);
 
                     borrowingRecordRepository.deleteById(id);
                     return new ResponseEntity<Void>(HttpStatus.NO_CONTENT);
@@ -92,13 +218,95 @@ public class BorrowingRecordService {
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
-    public ResponseEntity<List<BorrowingRecord>> getBorrowingRecordsByCustomerId(Long customerId) {
-        List<BorrowingRecord> records = borrowingRecordRepository.findByCustomerId(customerId);
-        return new ResponseEntity<>(records, HttpStatus.OK);
+    // Returned copies go to holds first. Of the rest, books with one copy coming back share a single
+    // bulk update; a book with several copies in the same return gets its own update for the whole count.
+    // A shelf that is already full takes nothing back, so its cached count is reloaded instead of adjusted.
+    @Transactional
+    public ResponseEntity<Void> deleteBorrowingRecords(BulkReturnRequest request) {
+        Set<Long> ids = new LinkedHashSet<>(request.borrowingRecordIds());
+        List<BorrowingRecord> records = borrowingRecordRepository.findAllById(ids);
+        if (records.size() != ids.size()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        Map<Long, Book> booksById = new LinkedHashMap<>();
+        Map<Long, Integer> copiesByBook = new LinkedHashMap<>();
+        List<OutboxEvent> returns = new ArrayList<>(records.size());
+        for (BorrowingRecord record : records) {
+            returns.add(CirculationOutbox.event(CirculationEventType.BOOK_RETURNED, record.getBook().getId(), record.getCustomer().getId(), record.getId()));
+            booksById.put(record.getBook().getId(), record.getBook());
+            copiesByBook.merge(record.getBook().getId(), 1, Integer::sum);
+            catalogueCache.evictBook(record.getBook());
+        }
+        circulationOutbox.recordAll(returns); // Ahead of the hand-offs, so each return precedes the loan it turns into
+        Map<Long, Integer> shelvedByBook = new LinkedHashMap<>();
+        Set<Long> singleCopies = new LinkedHashSet<>();
+        copiesByBook.forEach((bookId, copies) -> {
+            int shelved = copies - handOff(booksById.get(bookId), copies);
+            if (shelved == 1) {
+                singleCopies.add(bookId);
+                shelvedByBook.put(bookId, shelved);
+            } else if (shelved > 1) {
+                if (bookRepository.returnCopies(bookId, shelved) == 1) {
+                    shelvedByBook.put(bookId, shelved);
+                } else {
+                    availabilityCache.evict(bookId);
+                }
+            }
+        });
+        // Put the copies back on the shelf; when some were not, which ones is unknown
+        if (!singleCopies.isEmpty() && bookRepository.markAllReturned(singleCopies) != singleCopies.size()) {
+            singleCopies.forEach(bookId -> {
+                shelvedByBook.remove(bookId);
+                availabilityCache.evict(bookId);
+            });
+        }
+        availabilityCache.returned(shelvedByBook);
+        borrowingRecordRepository.deleteAllByIdInBatch(ids);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // Turns up to `copies` returned or added copies of the book into loans for the oldest holders.
+    // Returned copies handed off never reach the shelf, so the book's copy count stays as it is; added
+    // ones are already on it and the caller takes them off. Returns how many were handed off.
+    public int handOff(Book book, int copies) {
+        List<Long> holders = holdService.claim(book.getId(), copies);
+        if (holders.isEmpty()) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        List<BorrowingRecord> loans = new ArrayList<>(holders.size());
+        for (Long customerId : holders) {
+            loans.add(new BorrowingRecord(null, customerRepository.getReferenceById(customerId), book, today, today.plusDays(holdLoanDays)));
+        }
+        List<OutboxEvent> borrows = new ArrayList<>(holders.size());
+        for (BorrowingRecord loan : borrowingRecordRepository.saveAll(loans)) {
+            Long customerId = loan.getCustomer().getId();
+            borrows.add(CirculationOutbox.event(CirculationEventType.BOOK_BORROWED, book.getId(), customerId, loan.getId()));
+            relatedBooksIndex.borrowed(loan.getId(), customerId, book.getId());
+            borrowingTrends.borrowed(customerId, List.of(book.getId()));
+        }
+        circulationOutbox.recordAll(borrows);
+        return holders.size();
+    }
+
+    public ResponseEntity<List<BorrowingRecordSummary>> getBorrowingRecordsByCustomerId(Long customerId, Long afterId, int size) {
+        Limit limit = Pagination.limit(size);
+        List<BorrowingRecordSummary> records = borrowingRecordRepository.findSummariesByCustomerIdAfter(customerId, Pagination.after(afterId), limit);
+        return new ResponseEntity<>(records, Pagination.cursorHeaders(records, limit, BorrowingRecordSummary::id), HttpStatus.OK);
+    }
+
+    // What a customer has out right now, soonest due first
+    public ResponseEntity<List<BorrowingRecordSummary>> getActiveLoansByCustomerId(Long customerId) {
+        return new ResponseEntity<>(borrowingRecordRepository.findActiveSummariesByCustomerId(customerId), HttpStatus.OK);
+    }
+
+    public ResponseEntity<ActiveLoanStats> getActiveLoanStats() {
+        return new ResponseEntity<>(borrowingRecordRepository.findActiveLoanStats(LocalDate.now()), HttpStatus.OK);
     }
 
-    public ResponseEntity<List<BorrowingRecord>> getBorrowingRecordsByBookId(Long bookId) {
-        List<BorrowingRecord> records = borrowingRecordRepository.findByBookId(bookId);
-        return new ResponseEntity<>(records, HttpStatus.OK);
+    public ResponseEntity<List<BorrowingRecordSummary>> getBorrowingRecordsByBookId(Long bookId, Long afterId, int size) {
+        Limit limit = Pagination.limit(size);
+        List<BorrowingRecordSummary> records = borrowingRecordRepository.findSummariesByBookIdAfter(bookId, Pagination.after(afterId), limit);
+        return new ResponseEntity<>(records, Pagination.cursorHeaders(records, limit, BorrowingRecordSummary::id), HttpStatus.OK);
     }
 }
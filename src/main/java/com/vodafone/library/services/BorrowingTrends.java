@@ -0,0 +1,210 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.TrendingWindow;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Streaming borrow statistics, fed by every checkout once it commits, so trending and unique-borrower
+// figures never scan the borrowing records. Each window (hour, day, week) is a ring of BUCKETS time
+// buckets, every bucket a Count-Min sketch plus a HyperLogLog of borrowers. The window keeps a running
+// sum of its bucket sketches; when a bucket expires it is subtracted and reused, so the window slides in
+// steps of 1/BUCKETS of its length. A min-heap of `top-k` candidates, keyed on the windowed estimate,
+// tracks the heavy hitters. Memory is fixed by the sketch sizes however many borrows come in, and a
+// read costs the same at any traffic. Unique borrowers per book are one small HyperLogLog per book
+// ever borrowed, kept since startup.
+@Component
+public class BorrowingTrends {
+
+    private static final int BUCKETS = 12;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int WINDOW_BORROWER_PRECISION = 12;
+
+    @Value("${library.trending.top-k:100}")
+    private int topK;
+
+    @Value("${library.trending.sketch-width:2048}")
+    private int sketchWidth;
+
+    @Value("${library.trending.book-borrower-precision:8}")
+    private int bookBorrowerPrecision;
+
+    private Clock clock = Clock.systemUTC();
+    private final Map<TrendingWindow, Window> windows = new EnumMap<>(TrendingWindow.class);
+    private final Map<Long, HyperLogLog> borrowersByBook = new ConcurrentHashMap<>();
+
+    record HeavyHitter(long bookId, long borrows) {
+    }
+
+    record Trend(long borrows, long uniqueBorrowers, List<HeavyHitter> books) {
+    }
+
+    @PostConstruct
+    void start() {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new Window(window.getLength().toMillis() / BUCKETS));
+        }
+    }
+
+    public void borrowed(Long customerId, Collection<Long> bookIds) {
+        AfterCommit.run(() -> record(customerId, bookIds));
+    }
+
+    // Only the per-book borrower count goes; the book's share of the window sketches ages out with them
+    public void remove(Long bookId) {
+        borrowersByBook.remove(bookId);
+    }
+
+    Trend trending(TrendingWindow window, int limit) {
+        return windows.get(window).trend(clock.millis(), limit);
+    }
+
+    long uniqueBorrowers(Long bookId) {
+        HyperLogLog borrowers = borrowersByBook.get(bookId);
+        if (borrowers == null) {
+            return 0;
+        }
+        synchronized (borrowers) {
+            return borrowers.estimate();
+        }
+    }
+
+    private void record(Long customerId, Collection<Long> bookIds) {
+        long now = clock.millis();
+        for (Window window : windows.values()) {
+            window.record(now, customerId, bookIds);
+        }
+        for (Long bookId : bookIds) {
+            HyperLogLog borrowers = borrowersByBook.computeIfAbsent(bookId, id -> new HyperLogLog(bookBorrowerPrecision));
+            synchronized (borrowers) {
+                borrowers.add(customerId);
+            }
+        }
+    }
+
+    private static final class Candidate {
+        private final long bookId;
+        private int borrows;
+
+        private Candidate(long bookId, int borrows) {
+            this.bookId = bookId;
+            this.borrows = borrows;
+        }
+    }
+
+    private final class Window {
+        private final long bucketMillis;
+        private final CountMinSketch[] buckets = new CountMinSketch[BUCKETS];
+        private final CountMinSketch total = new CountMinSketch(SKETCH_DEPTH, sketchWidth);
+        private final HyperLogLog[] borrowers = new HyperLogLog[BUCKETS];
+        private final long[] borrowsPerBucket = new long[BUCKETS];
+        private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingInt((Candidate candidate) -> candidate.borrows));
+        private final Map<Long, Candidate> candidates = new HashMap<>();
+        private long borrows;
+        private long currentBucket = Long.MIN_VALUE;
+
+        private Window(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new CountMinSketch(SKETCH_DEPTH, sketchWidth);
+                borrowers[i] = new HyperLogLog(WINDOW_BORROWER_PRECISION);
+            }
+        }
+
+        private synchronized void record(long now, Long customerId, Collection<Long> bookIds) {
+            advance(now);
+            int slot = (int) Math.floorMod(currentBucket, BUCKETS);
+            for (Long bookId : bookIds) {
+                buckets[slot].add(bookId, 1);
+                total.add(bookId, 1);
+                offer(bookId, total.estimate(bookId));
+            }
+            borrowsPerBucket[slot] += bookIds.size();
+            borrows += bookIds.size();
+            borrowers[slot].add(customerId);
+        }
+
+        private synchronized Trend trend(long now, int limit) {
+            advance(now);
+            HyperLogLog union = new HyperLogLog(WINDOW_BORROWER_PRECISION);
+            for (HyperLogLog bucket : borrowers) {
+                union.merge(bucket);
+            }
+            List<HeavyHitter> books = candidates.values().stream()
+                    .sorted(Comparator.comparingInt((Candidate candidate) -> candidate.borrows).reversed()
+                            .thenComparingLong(candidate -> candidate.bookId))
+                    .limit(limit)
+                    .map(candidate -> new HeavyHitter(candidate.bookId, candidate.borrows))
+                    .toList();
+            return new Trend(borrows, union.estimate(), books);
+        }
+
+        // Keeps the top-k books by windowed estimate; a book outside it has to beat the weakest to get in
+        private void offer(long bookId, int estimate) {
+            Candidate candidate = candidates.get(bookId);
+            if (candidate != null) {
+                heap.remove(candidate);
+                candidate.borrows = estimate;
+                heap.add(candidate);
+            } else if (candidates.size() < topK) {
+                add(new Candidate(bookId, estimate));
+            } else if (heap.peek().borrows < estimate) {
+                candidates.remove(heap.poll().bookId);
+                add(new Candidate(bookId, estimate));
+            }
+        }
+
+        private void add(Candidate candidate) {
+            candidates.put(candidate.bookId, candidate);
+            heap.add(candidate);
+        }
+
+        // Expires every bucket that has fallen out of the window since the last call, then re-estimates
+        // the candidates, whose counts can only have dropped
+        private void advance(long now) {
+            long bucket = now / bucketMillis;
+            if (bucket <= currentBucket) {
+                return;
+            }
+            if (currentBucket == Long.MIN_VALUE || bucket - currentBucket >= BUCKETS) {
+                for (int slot = 0; slot < BUCKETS; slot++) {
+                    expire(slot);
+                }
+            } else {
+                for (long expired = currentBucket + 1; expired <= bucket; expired++) {
+                    expire((int) Math.floorMod(expired, BUCKETS));
+                }
+            }
+            currentBucket = bucket;
+            List<Candidate> survivors = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates.values()) {
+                candidate.borrows = total.estimate(candidate.bookId);
+                if (candidate.borrows > 0) {
+                    survivors.add(candidate);
+                }
+            }
+            candidates.clear();
+            heap.clear();
+            survivors.forEach(this::add);
+        }
+
+        private void expire(int slot) {
+            total.subtract(buckets[slot]);
+            buckets[slot].clear();
+            borrowers[slot].clear();
+            borrows -= borrowsPerBucket[slot];
+            borrowsPerBucket[slot] = 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.config.CacheConfig;
+import com.vodafone.library.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+// Invalidation for the read-through caches on BookService and AuthorService. Writes go through here
+// rather than @CacheEvict because the affected keys (old ISBN, owning author) are only known mid-method.
+// The keys are taken when called but evicted once the transaction commits; evicting earlier would let a
+// read in between cache the row as it was before the write, for the whole TTL.
+@Component
+public class CatalogueCache {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public void evictBook(Book book) {
+        Long id = book.getId();
+        String isbn = book.getIsbn();
+        Long authorId = book.getAuthor() == null ? null : book.getAuthor().getId();
+        AfterCommit.run(() -> {
+            evict(CacheConfig.BOOKS, id);
+            evict(CacheConfig.BOOKS_BY_ISBN, isbn);
+            evict(CacheConfig.AUTHORS, authorId);
+        });
+    }
+
+    public void evictAuthor(Long authorId) {
+        AfterCommit.run(() -> {
+            evict(CacheConfig.AUTHORS, authorId);
+            // Every cached book embeds its author, so an author change invalidates the book caches as well.
+            clear(CacheConfig.BOOKS);
+            clear(CacheConfig.BOOKS_BY_ISBN);
+        });
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
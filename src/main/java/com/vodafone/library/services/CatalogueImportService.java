@@ -0,0 +1,223 @@
+package com.vodafone.library.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vodafone.library.dto.AuthorSummary;
+import com.vodafone.library.dto.CatalogueRow;
+import com.vodafone.library.dto.ImportReport;
+import com.vodafone.library.repository.AuthorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Loads books and authors from CSV or NDJSON. Input is parsed a line at a time and written in chunks,
+// and reading stops while a chunk is being written, so a large upload is throttled by the database
+// instead of piling up in memory. Only the author lookup map grows with the size of the catalogue.
+@Slf4j
+@Service
+public class CatalogueImportService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    static final int CHUNK_SIZE = 1000;
+    private static final int PROGRESS_INTERVAL = 50;
+    private static final List<String> CSV_COLUMNS = List.of("title", "isbn", "publicationDate", "genre",
+            "authorName", "authorBirthDate", "authorNationality");
+    // Author birth date and nationality are only needed for authors that do not exist yet
+    private static final int REQUIRED_CSV_COLUMNS = 5;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private CatalogueImportWriter catalogueImportWriter;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public ResponseEntity<ImportReport> importCatalogue(InputStream inputStream, MediaType contentType) throws IOException {
+        boolean csv = TEXT_CSV.isCompatibleWith(contentType);
+        if (!csv && !MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new ResponseEntity<>(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+        long start = System.nanoTime();
+        Map<String, Long> authorIds = new HashMap<>();
+        for (AuthorSummary author : authorRepository.findAllSummaries()) {
+            authorIds.putIfAbsent(authorKey(author.name()), author.id());
+        }
+
+        long read = 0;
+        long rejected = 0;
+        long[] totals = new long[3]; // imported, duplicates, authors created
+        List<CatalogueRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        int[] columns = csv ? csvColumns(reader.readLine()) : null;
+        if (csv && columns == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST); // Missing or incomplete header
+        }
+        int chunks = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            read++;
+            CatalogueRow row = csv ? parseCsv(line, columns) : parseJson(line);
+            if (row == null) {
+                rejected++;
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                rejected += write(chunk, authorIds, totals);
+                if (++chunks % PROGRESS_INTERVAL == 0) {
+                    log.info("Catalogue import: {} rows read, {} imported, {} rows/s", read, totals[0], rate(read, start));
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            rejected += write(chunk, authorIds, totals);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        ImportReport report = new ImportReport(read, totals[0], totals[1], rejected, totals[2], elapsedMillis, rate(read, start));
+        log.info("Catalogue import finished: {}", report);
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    // A chunk that fails as a whole, for instance on an ISBN another request inserted meanwhile, is written
+    // again a row at a time, so only the rows that fail on their own are rejected
+    private int write(List<CatalogueRow> chunk, Map<String, Long> authorIds, long[] totals) {
+        int rejected;
+        try {
+            rejected = count(catalogueImportWriter.write(chunk, authorIds), authorIds, totals);
+        } catch (RuntimeException e) {
+            log.warn("Catalogue import chunk of {} rows failed, writing it row by row: {}", chunk.size(), e.toString());
+            rejected = 0;
+            for (CatalogueRow row : chunk) {
+                try {
+                    rejected += count(catalogueImportWriter.write(List.of(row), authorIds), authorIds, totals);
+                } catch (RuntimeException rowFailure) {
+                    rejected++;
+                }
+            }
+        }
+        chunk.clear();
+        return rejected;
+    }
+
+    private static int count(CatalogueImportWriter.ChunkResult result, Map<String, Long> authorIds, long[] totals) {
+        authorIds.putAll(result.createdAuthors());
+        totals[0] += result.imported();
+        totals[1] += result.duplicates();
+        totals[2] += result.createdAuthors().size();
+        return result.rejected();
+    }
+
+    static String authorKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long rate(long rows, long start) {
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        return rows * 1_000_000_000L / elapsedNanos;
+    }
+
+    private CatalogueRow parseJson(String line) {
+        try {
+            return valid(objectMapper.readValue(line, CatalogueRow.class));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Returns the position of each CSV_COLUMNS entry in the header, or null if one is missing
+    static int[] csvColumns(String header) {
+        if (header == null) {
+            return null;
+        }
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0 && i < REQUIRED_CSV_COLUMNS) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    static CatalogueRow parseCsv(String line, int[] columns) {
+        List<String> fields = splitCsv(line);
+        try {
+            return valid(new CatalogueRow(field(fields, columns[0]), field(fields, columns[1]), date(field(fields, columns[2])),
+                    field(fields, columns[3]), field(fields, columns[4]), date(field(fields, columns[5])), field(fields, columns[6])));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // RFC 4180 fields on a single line: commas inside quotes and doubled quotes are supported
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate date(String value) {
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    private static CatalogueRow valid(CatalogueRow row) {
+        if (row == null || isBlank(row.title()) || isBlank(row.isbn()) || row.publicationDate() == null
+                || isBlank(row.genre()) || isBlank(row.authorName())) {
+            return null;
+        }
+        return row;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
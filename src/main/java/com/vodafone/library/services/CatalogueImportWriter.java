@@ -0,0 +1,95 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.dto.CatalogueRow;
+import com.vodafone.library.dto.CirculationEventType;
+import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
+import com.vodafone.library.repository.AuthorRepository;
+import com.vodafone.library.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Writes one chunk of an import in its own transaction. The persistence context only ever holds a
+// single chunk, and a bad chunk rolls back without undoing the ones already committed.
+@Component
+public class CatalogueImportWriter {
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+    @Autowired
+    private CatalogueCache catalogueCache;
+    @Autowired
+    private CirculationOutbox circulationOutbox;
+
+    public record ChunkResult(int imported, int duplicates, int rejected, Map<String, Long> createdAuthors) {
+    }
+
+    // authorIds maps the natural key of every author known so far to its ID; authors created here are
+    // returned so the caller can add them once the transaction has committed.
+    @Transactional
+    public ChunkResult write(List<CatalogueRow> rows, Map<String, Long> authorIds) {
+        Map<String, CatalogueRow> byIsbn = new LinkedHashMap<>();
+        for (CatalogueRow row : rows) {
+            byIsbn.putIfAbsent(row.isbn(), row);
+        }
+        Set<String> existing = new HashSet<>(bookRepository.findExistingIsbns(byIsbn.keySet()));
+        byIsbn.keySet().removeAll(existing);
+        int duplicates = rows.size() - byIsbn.size();
+
+        Map<String, Author> newAuthors = new HashMap<>();
+        List<Book> books = new ArrayList<>(byIsbn.size());
+        int rejected = 0;
+        for (CatalogueRow row : byIsbn.values()) {
+            String key = CatalogueImportService.authorKey(row.authorName());
+            Long authorId = authorIds.get(key);
+            Author author;
+            if (authorId != null) {
+                author = authorRepository.getReferenceById(authorId);
+            } else if (newAuthors.containsKey(key)) {
+                author = newAuthors.get(key);
+            } else if (row.authorBirthDate() != null && row.authorNationality() != null) {
+                author = new Author(null, row.authorName().trim(), row.authorBirthDate(), row.authorNationality(), null);
+                newAuthors.put(key, author);
+            } else {
+                rejected++; // A new author needs a birth date and nationality
+                continue;
+            }
+            books.add(new Book(null, row.title(), author, row.isbn(), row.publicationDate(), row.genre(), true));
+        }
+
+        authorRepository.saveAll(newAuthors.values());
+        bookRepository.saveAll(books);
+        circulationOutbox.recordAll(books.stream()
+                .map(book -> CirculationOutbox.event(CirculationEventType.BOOK_CREATED, book.getId(), null, null))
+                .toList());
+
+        List<BookSummary> summaries = new ArrayList<>(books.size());
+        for (Book book : books) {
+            // The author may be an uninitialized reference, so its name comes from the row
+            String authorName = byIsbn.get(book.getIsbn()).authorName().trim();
+            summaries.add(new BookSummary(book.getId(), book.getTitle(), book.getIsbn(), book.getPublicationDate(),
+                    book.getGenre(), true, book.getAuthor().getId(), authorName));
+            catalogueCache.evictBook(book);
+        }
+        // Indexed once the chunk commits, so a chunk that fails at flush or commit leaves no phantom ids
+        AfterCommit.run(() -> summaries.forEach(bookSearchIndex::index));
+
+        Map<String, Long> createdAuthors = new HashMap<>();
+        newAuthors.forEach((key, author) -> createdAuthors.put(key, author.getId()));
+        return new ChunkResult(books.size(), duplicates, rejected, createdAuthors);
+    }
+}
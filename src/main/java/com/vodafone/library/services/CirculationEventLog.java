@@ -0,0 +1,303 @@
+package com.vodafone.library.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only local log of circulation events, split into fixed-size memory-mapped segment files named
+// after the offset of their first record. Each record is [length][crc32][offset][payload]; the offset is
+// the record's position in the whole log and is what consumers resume from. Appends take a ReentrantLock,
+// one writer at a time, and are forced to disk before append returns; consumers waiting for the next
+// record wait on a Condition of that lock. Neither holds a monitor, so a virtual thread that waits or
+// forces does not pin its carrier. Readers need no lock: they read up to
+// the published end, through their own view of the mapping, and find their start from a sparse index of
+// every INDEX_INTERVAL-th record. On startup each segment is scanned to rebuild that index, up to the
+// first record that is missing or fails its checksum, which drops a torn write at the tail. Only the
+// newest `retained-segments` segments are kept. The log holds an OS lock on a file in its directory while
+// it is open, so a second process or application context pointed at the same directory fails to start
+// instead of overwriting its segments.
+@Component
+public class CirculationEventLog {
+
+    private static final int HEADER_BYTES = 16;
+    private static final int INDEX_INTERVAL = 64;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "log.lock";
+
+    @Value("${library.events.directory:${java.io.tmpdir}/library-events}")
+    private Path directory;
+
+    @Value("${library.events.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${library.events.retained-segments:16}")
+    private int retainedSegments;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private FileChannel lockChannel;
+    private Segment active;
+    private volatile long nextOffset;
+
+    public record LogRecord(long offset, byte[] payload) {
+    }
+
+    @PostConstruct
+    void open() {
+        try {
+            Files.createDirectories(directory);
+            lock();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                    String name = file.getFileName().toString();
+                    Segment segment = new Segment(file, Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), segmentBytes());
+                    segments.put(segment.baseOffset, segment);
+                }
+            }
+            active = segments.isEmpty() ? newSegment(0) : segments.lastEntry().getValue();
+            nextOffset = active.nextOffset;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event log in " + directory, e);
+        }
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Held by another context in this JVM
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Event log in " + directory + " is already open in another process or application context");
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        lock.lock();
+        try {
+            if (active != null) {
+                active.buffer.force();
+            }
+            if (lockChannel != null) {
+                lockChannel.close(); // Releases the file lock
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot release the event log lock in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Offset the next appended record will get
+    public long endOffset() {
+        return nextOffset;
+    }
+
+    // Oldest offset still on disk
+    public long startOffset() {
+        Map.Entry<Long, Segment> first = segments.firstEntry();
+        return first == null ? nextOffset : first.getKey();
+    }
+
+    // Appends the records in order and forces them to disk; returns the offset of the first
+    public long append(List<byte[]> payloads) {
+        lock.lock();
+        long first = nextOffset;
+        long offset = first;
+        try {
+            for (byte[] payload : payloads) {
+                int size = HEADER_BYTES + payload.length;
+                if (size > active.buffer.capacity()) {
+                    throw new IllegalArgumentException("Event of " + payload.length + " bytes does not fit in a segment");
+                }
+                if (active.buffer.capacity() - active.limit < size) {
+                    roll(offset);
+                }
+                active.write(offset++, payload);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll the event log", e);
+        } finally {
+            active.buffer.force();
+            nextOffset = offset;
+            appended.signalAll();
+            lock.unlock();
+        }
+        return first;
+    }
+
+    // Up to maxRecords records from fromOffset on; a consumer that fell behind the retained segments
+    // continues from the oldest record left
+    public List<LogRecord> read(long fromOffset, int maxRecords) {
+        long end = nextOffset;
+        List<LogRecord> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        long offset = Math.max(fromOffset, startOffset());
+        while (records.size() < maxRecords && offset < end) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                break;
+            }
+            int read = entry.getValue().read(offset, end, maxRecords - records.size(), records);
+            if (read == 0) {
+                break;
+            }
+            offset += read;
+        }
+        return records;
+    }
+
+    // Blocks until a record at or after `offset` exists or the timeout passes
+    public void awaitAppend(long offset, long timeoutMillis) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (nextOffset <= offset && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll(long baseOffset) throws IOException {
+        active.buffer.force();
+        active = newSegment(baseOffset);
+        while (segments.size() > retainedSegments) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            // Readers still holding its mapping keep reading it; the file itself goes now
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    private Segment newSegment(long baseOffset) throws IOException {
+        Segment segment = new Segment(directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX)), baseOffset, segmentBytes());
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    private int segmentBytes() {
+        return (int) Math.min(Integer.MAX_VALUE, segmentSize.toBytes());
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long baseOffset;
+        private final MappedByteBuffer buffer;
+        // Bytes of complete records; written after the record, so a reader that sees it sees the record
+        private volatile int limit;
+        private long nextOffset;
+        private int[] index = new int[64];
+
+        private Segment(Path path, long baseOffset, int size) throws IOException {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+            }
+            recover();
+        }
+
+        private void recover() {
+            CRC32 crc = new CRC32();
+            int position = 0;
+            long offset = baseOffset;
+            while (position + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity() || buffer.getLong(position + 8) != offset) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position + HEADER_BYTES, length));
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    break;
+                }
+                indexRecord(offset, position);
+                position += HEADER_BYTES + length;
+                offset++;
+            }
+            nextOffset = offset;
+            limit = position;
+        }
+
+        private void write(long offset, byte[] payload) {
+            int position = limit;
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.putLong(position + 8, offset);
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putInt(position, payload.length);
+            indexRecord(offset, position);
+            nextOffset = offset + 1;
+            limit = position + HEADER_BYTES + payload.length;
+        }
+
+        private void indexRecord(long offset, int position) {
+            long ordinal = offset - baseOffset;
+            if (ordinal % INDEX_INTERVAL == 0) {
+                int slot = (int) (ordinal / INDEX_INTERVAL);
+                if (slot == index.length) {
+                    index = Arrays.copyOf(index, slot * 2);
+                }
+                index[slot] = position;
+            }
+        }
+
+        // Reads records from `from` up to (not including) `end`; returns how many were added
+        private int read(long from, long end, int maxRecords, List<LogRecord> records) {
+            int readable = limit;
+            int slot = (int) ((from - baseOffset) / INDEX_INTERVAL);
+            int[] positions = index;
+            if (slot >= positions.length) {
+                return 0;
+            }
+            ByteBuffer view = buffer.duplicate();
+            int position = positions[slot];
+            long offset = baseOffset + (long) slot * INDEX_INTERVAL;
+            int read = 0;
+            while (position < readable && offset < end && read < maxRecords) {
+                int length = view.getInt(position);
+                if (offset >= from) {
+                    byte[] payload = new byte[length];
+                    view.get(position + HEADER_BYTES, payload);
+                    records.add(new LogRecord(offset, payload));
+                    read++;
+                }
+                position += HEADER_BYTES + length;
+                offset++;
+            }
+            return read;
+        }
+    }
+}
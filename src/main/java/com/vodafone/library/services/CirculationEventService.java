@@ -0,0 +1,52 @@
+package com.vodafone.library.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Consumer side of the circulation event log. A consumer keeps its own offset: it reads a batch, resumes
+// from X-Next-Offset, and with waitMillis set parks on the log instead of polling while it is caught up.
+// Records are copied out of the log as stored, with no parsing, so a read costs a memory copy per event.
+@Service
+public class CirculationEventService {
+
+    public static final String NEXT_OFFSET_HEADER = "X-Next-Offset";
+    public static final int MAX_EVENTS = 10_000;
+    public static final long MAX_WAIT_MILLIS = 30_000;
+
+    @Autowired
+    private CirculationEventLog circulationEventLog;
+
+    // Each line is {"offset":N,"event":{...}}
+    public ResponseEntity<StreamingResponseBody> readEvents(long fromOffset, int limit, long waitMillis) {
+        if (fromOffset < 0 || limit < 1 || waitMillis < 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (waitMillis > 0) {
+            circulationEventLog.awaitAppend(fromOffset, Math.min(waitMillis, MAX_WAIT_MILLIS));
+        }
+        List<CirculationEventLog.LogRecord> records = circulationEventLog.read(fromOffset, Math.min(limit, MAX_EVENTS));
+        long nextOffset = records.isEmpty()
+                ? Math.max(fromOffset, circulationEventLog.startOffset())
+                : records.get(records.size() - 1).offset() + 1;
+        StreamingResponseBody body = outputStream -> {
+            for (CirculationEventLog.LogRecord record : records) {
+                outputStream.write(("{\"offset\":" + record.offset() + ",\"event\":").getBytes(StandardCharsets.US_ASCII));
+                outputStream.write(record.payload());
+                outputStream.write('}');
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(NEXT_OFFSET_HEADER, String.valueOf(nextOffset))
+                .body(body);
+    }
+}
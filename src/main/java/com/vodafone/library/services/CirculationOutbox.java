@@ -0,0 +1,38 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.CirculationEventType;
+import com.vodafone.library.model.OutboxEvent;
+import com.vodafone.library.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Writes circulation events to the outbox table. It joins the transaction of the change being recorded
+// and refuses to run without one, so an event commits or rolls back together with its change and
+// OutboxRelay only ever sees changes that happened.
+@Component
+public class CirculationOutbox {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(CirculationEventType type, Long bookId, Long customerId, Long borrowingRecordId) {
+        outboxEventRepository.save(event(type, bookId, customerId, borrowingRecordId));
+    }
+
+    // One batched insert for a bulk checkout or return
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<OutboxEvent> events) {
+        outboxEventRepository.saveAll(events);
+    }
+
+    public static OutboxEvent event(CirculationEventType type, Long bookId, Long customerId, Long borrowingRecordId) {
+        return new OutboxEvent(null, UUID.randomUUID(), type, bookId, customerId, borrowingRecordId, LocalDateTime.now());
+    }
+}
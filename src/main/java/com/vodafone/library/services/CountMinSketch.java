@@ -0,0 +1,61 @@
+package com.vodafone.library.services;
+
+import java.util.Arrays;
+
+// Count-Min sketch: `depth` rows of `width` counters, each row indexed by its own hash of the key. An
+// estimate is the smallest of the key's counters, so it never undercounts and overcounts by at most
+// e/width of the total with probability 1 - e^-depth. Sketches of the same shape add and subtract
+// cell by cell, which is what lets a sliding window drop an expired bucket. Not thread-safe.
+final class CountMinSketch {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int depth;
+    private final int width;
+    private final int[] counts;
+
+    // width is rounded up to a power of two
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.counts = new int[depth * this.width];
+    }
+
+    void add(long key, int delta) {
+        for (int row = 0; row < depth; row++) {
+            counts[index(row, key)] += delta;
+        }
+    }
+
+    int estimate(long key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[index(row, key)]);
+        }
+        return estimate;
+    }
+
+    void subtract(CountMinSketch other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= other.counts[i];
+        }
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    private int index(int row, long key) {
+        return row * width + (int) (mix(key + (row + 1) * GOLDEN_GAMMA) & (width - 1));
+    }
+
+    // SplitMix64 finalizer; seeding each row with a different multiple of the gamma gives independent rows
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
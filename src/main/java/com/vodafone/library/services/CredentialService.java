@@ -0,0 +1,124 @@
+package com.vodafone.library.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vodafone.library.config.PasswordHasher;
+import com.vodafone.library.model.Customer;
+import com.vodafone.library.repository.CustomerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Password hashing and login. Hashing and verification are CPU-bound by design, so they run on a pool
+// sized to the cores with a bounded queue: a burst is rejected (RejectedExecutionException) instead of
+// tying up request threads. A successful login is remembered per session for a short while, so repeated
+// logins from the same session skip the key derivation.
+@Service
+public class CredentialService {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Value("${library.credentials.verify-threads:0}")
+    private int verifyThreads;
+
+    @Value("${library.credentials.verify-queue:64}")
+    private int verifyQueue;
+
+    @Value("${library.credentials.session-ttl:5m}")
+    private Duration sessionTtl;
+
+    private ThreadPoolExecutor executor;
+    private Cache<String, VerifiedSession> verifiedSessions;
+    private HmacUtils fingerprints;
+    private String unknownCustomerHash;
+
+    // The fingerprint is keyed with a per-process secret, so the cache never holds anything that could
+    // be checked against a guessed password outside this JVM.
+    private record VerifiedSession(Long customerId, String storedHash, String fingerprint) {
+    }
+
+    @PostConstruct
+    void start() {
+        int threads = verifyThreads > 0 ? verifyThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(verifyQueue),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "credential-verify-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        verifiedSessions = Caffeine.newBuilder()
+                .expireAfterWrite(sessionTtl)
+                .maximumSize(100_000)
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        fingerprints = new HmacUtils(HmacAlgorithms.HMAC_SHA_256, key);
+        // Unknown emails are verified against this, so they take as long as a wrong password
+        unknownCustomerHash = passwordHasher.hash(new String(key, StandardCharsets.ISO_8859_1));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public CompletableFuture<String> hash(String password) {
+        return CompletableFuture.supplyAsync(() -> passwordHasher.hash(password), executor);
+    }
+
+    // Completes with the customer if the password matches. Hashes made with an older cost, or with the
+    // legacy unsalted SHA-256, are replaced on a successful login.
+    public CompletableFuture<Optional<Customer>> authenticate(String email, String password, String sessionId) {
+        Optional<Customer> customer = customerRepository.findByEmail(email);
+        String storedHash = customer.map(Customer::getPassword).orElse(unknownCustomerHash);
+        if (customer.isPresent() && isVerified(sessionId, customer.get().getId(), storedHash, password)) {
+            return CompletableFuture.completedFuture(customer);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            if (!passwordHasher.verify(password, storedHash) || customer.isEmpty()) {
+                return Optional.empty();
+            }
+            Customer verified = customer.get();
+            if (passwordHasher.needsRehash(storedHash)) {
+                verified.setPassword(passwordHasher.hash(password));
+                customerRepository.updatePassword(verified.getId(), verified.getPassword());
+            }
+            if (sessionId != null) {
+                verifiedSessions.put(sessionId, new VerifiedSession(verified.getId(), verified.getPassword(),
+                        fingerprint(password, verified.getPassword())));
+            }
+            return Optional.of(verified);
+        }, executor);
+    }
+
+    private boolean isVerified(String sessionId, Long customerId, String storedHash, String password) {
+        VerifiedSession session = sessionId == null ? null : verifiedSessions.getIfPresent(sessionId);
+        // A password change replaces the stored hash, which invalidates the entry
+        return session != null && session.customerId().equals(customerId) && session.storedHash().equals(storedHash)
+                && MessageDigest.isEqual(session.fingerprint().getBytes(StandardCharsets.US_ASCII),
+                fingerprint(password, storedHash).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String fingerprint(String password, String storedHash) {
+        return fingerprints.hmacHex(storedHash + '\u0000' + password);
+    }
+}
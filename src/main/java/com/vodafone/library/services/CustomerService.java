@@ -1,16 +1,21 @@
 package com.vodafone.library.services;
 
-import com.vodafone.library.config.SecurityConfig;
+import com.vodafone.library.dto.CustomerSummary;
+import com.vodafone.library.dto.LoginRequest;
 import com.vodafone.library.model.Customer;
 import com.vodafone.library.repository.CustomerRepository;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 
@@ -19,11 +24,11 @@ public class CustomerService {
     @Autowired
     private CustomerRepository customerRepository;
     @Autowired
-    private SecurityConfig securityConfig;
+    private CredentialService credentialService;
 
 
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        List<Customer> customers = customerRepository.findAll();
+    public ResponseEntity<List<CustomerSummary>> getAllCustomers() {
+        List<CustomerSummary> customers = customerRepository.findAllSummaries();
         return new ResponseEntity<>(customers, HttpStatus.OK);
     }
 
@@ -33,25 +38,60 @@ public class CustomerService {
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
-    public ResponseEntity<Customer> createCustomer(Customer customer) {
-        String encryptedPassword = SecurityConfig.encodePassword(customer.getPassword());
-        customer.setPassword(encryptedPassword);
-        Customer savedCustomer = customerRepository.save(customer);
-        return new ResponseEntity<>(savedCustomer, HttpStatus.CREATED);
+    // Creating and updating hash the password on the credential pool and complete there, as a login does
+    public CompletableFuture<ResponseEntity<Customer>> createCustomer(Customer customer) {
+        try {
+            return credentialService.hash(customer.getPassword())
+                    .thenApply(encryptedPassword -> {
+                        customer.setPassword(encryptedPassword);
+                        Customer savedCustomer = customerRepository.save(customer);
+                        return new ResponseEntity<>(savedCustomer, HttpStatus.CREATED);
+                    });
+        } catch (RejectedExecutionException e) {
+            return busy();
+        }
     }
 
-    public ResponseEntity<Customer> updateCustomer(Long id, Customer customerDetails) {
-        return customerRepository.findById(id)
-                .map(customer -> {
-                    customer.setName(customerDetails.getName());
-                    customer.setEmail(customerDetails.getEmail());
-                    customer.setAddress(customerDetails.getAddress());
-                    customer.setPhoneNumber(customerDetails.getPhoneNumber());
-                    customer.setPassword(customerDetails.getPassword());
-                    Customer updatedCustomer = customerRepository.save(customer);
-                    return new ResponseEntity<>(updatedCustomer, HttpStatus.OK);
-                })
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    // Responds with the customer loaded here rather than the copy save returns: that copy's borrowing
+    // records belong to a session that is closed by the time the response is written
+    public CompletableFuture<ResponseEntity<Customer>> updateCustomer(Long id, Customer customerDetails) {
+        Optional<Customer> existing = customerRepository.findById(id);
+        if (existing.isEmpty()) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
+        try {
+            return credentialService.hash(customerDetails.getPassword())
+                    .thenApply(encryptedPassword -> {
+                        Customer customer = existing.get();
+                        customer.setName(customerDetails.getName());
+                        customer.setEmail(customerDetails.getEmail());
+                        customer.setAddress(customerDetails.getAddress());
+                        customer.setPhoneNumber(customerDetails.getPhoneNumber());
+                        customer.setPassword(encryptedPassword);
+                        customerRepository.save(customer);
+                        return new ResponseEntity<>(customer, HttpStatus.OK);
+                    });
+        } catch (RejectedExecutionException e) {
+            return busy();
+        }
+    }
+
+    // Completes on the verification pool; when that pool is saturated the login is refused straight away
+    public CompletableFuture<ResponseEntity<CustomerSummary>> login(LoginRequest request, String sessionId) {
+        try {
+            return credentialService.authenticate(request.email(), request.password(), sessionId)
+                    .thenApply(customer -> customer
+                            .map(c -> new ResponseEntity<>(new CustomerSummary(c.getId(), c.getName(), c.getEmail(), c.getPhoneNumber(), c.getAddress()), HttpStatus.OK))
+                            .orElse(new ResponseEntity<>(HttpStatus.UNAUTHORIZED)));
+        } catch (RejectedExecutionException e) {
+            return busy();
+        }
+    }
+
+    private static <T> CompletableFuture<ResponseEntity<T>> busy() {
+        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .<T>build());
     }
 
     public ResponseEntity<Void> deleteCustomer(Long id) {
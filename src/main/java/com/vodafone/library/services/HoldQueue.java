@@ -0,0 +1,74 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookHoldSummary;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.stream.Stream;
+
+// In-memory index of the book_hold rows: one FIFO deque per book, so listing a book's waitlist needs no
+// query. Adds and removals for a book run inside the map's compute for that key, which also drops a
+// deque the moment it empties; readers iterate the deque without locking. Changes are made after the
+// database change commits on this instance. Hand-offs never read it: they claim holds from the rows,
+// which also hold those placed on other instances.
+@Component
+public class HoldQueue {
+
+    private final Map<Long, Deque<BookHoldSummary>> queues = new ConcurrentHashMap<>();
+
+    public void add(BookHoldSummary hold) {
+        queues.compute(hold.bookId(), (bookId, queue) -> {
+            Deque<BookHoldSummary> holds = queue == null ? new ConcurrentLinkedDeque<>() : queue;
+            holds.addLast(hold);
+            return holds;
+        });
+    }
+
+    public void remove(Long bookId, Long holdId) {
+        queues.computeIfPresent(bookId, (id, queue) -> {
+            queue.removeIf(hold -> hold.id().equals(holdId));
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    public void removeExpired(LocalDateTime now) {
+        for (Long bookId : queues.keySet()) {
+            queues.computeIfPresent(bookId, (id, queue) -> {
+                queue.removeIf(hold -> hold.expiresAt().isBefore(now));
+                return queue.isEmpty() ? null : queue;
+            });
+        }
+    }
+
+    // Oldest first; the iteration reflects concurrent changes or not, but never fails
+    Iterable<BookHoldSummary> holds(Long bookId) {
+        Deque<BookHoldSummary> queue = queues.get(bookId);
+        return queue == null ? List.of() : queue;
+    }
+
+    public List<BookHoldSummary> waiting(Long bookId, LocalDateTime now) {
+        List<BookHoldSummary> waiting = new ArrayList<>();
+        for (BookHoldSummary hold : holds(bookId)) {
+            if (!hold.expiresAt().isBefore(now)) {
+                waiting.add(hold);
+            }
+        }
+        return waiting;
+    }
+
+    // Holds must arrive in (bookId, placedAt, id) order, as streamAllSummaries returns them
+    public void rebuild(Stream<BookHoldSummary> holds) {
+        queues.clear();
+        holds.forEach(this::add);
+    }
+
+    public int size() {
+        return queues.values().stream().mapToInt(Deque::size).sum();
+    }
+}
@@ -0,0 +1,121 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookHoldSummary;
+import com.vodafone.library.dto.HoldRequest;
+import com.vodafone.library.model.BookHold;
+import com.vodafone.library.repository.BookHoldRepository;
+import com.vodafone.library.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+// Waitlist for books with no copy on the shelf. Holds are rows in book_hold, mirrored per book in
+// HoldQueue for listing; a returned or newly added copy goes to the oldest live hold row as a new loan
+// (see BorrowingRecordService), so customers wait for it instead of polling the checkout.
+@Service
+public class HoldService {
+
+    @Autowired
+    private BookHoldRepository bookHoldRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private AvailabilityCache availabilityCache;
+    @Autowired
+    private HoldQueue holdQueue;
+
+    @Value("${library.holds.ttl:14d}")
+    private Duration ttl;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildHoldQueue() {
+        try (Stream<BookHoldSummary> holds = bookHoldRepository.streamAllSummaries()) {
+            holdQueue.rebuild(holds);
+        }
+    }
+
+    // A book with a copy on the shelf cannot be held; borrowing it is the way to get that copy
+    @Transactional
+    public ResponseEntity<BookHoldSummary> placeHold(Long bookId, HoldRequest request) {
+        OptionalInt availableCopies = availabilityCache.availableCopies(bookId);
+        if (availableCopies.isEmpty() || !customerRepository.existsById(request.customerId())) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (availableCopies.getAsInt() > 0 || bookHoldRepository.existsByBookIdAndCustomerId(bookId, request.customerId())) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BookHold hold = bookHoldRepository.save(new BookHold(null, bookId, request.customerId(), now, now.plus(ttl)));
+        BookHoldSummary summary = new BookHoldSummary(hold.getId(), bookId, request.customerId(), hold.getPlacedAt(), hold.getExpiresAt());
+        AfterCommit.run(() -> holdQueue.add(summary));
+        return new ResponseEntity<>(summary, HttpStatus.CREATED);
+    }
+
+    @Transactional
+    public ResponseEntity<Void> cancelHold(Long bookId, Long holdId) {
+        boolean held = bookHoldRepository.findById(holdId).filter(hold -> hold.getBookId().equals(bookId)).isPresent();
+        if (!held || bookHoldRepository.deleteHold(holdId) == 0) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        AfterCommit.run(() -> holdQueue.remove(bookId, holdId));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // The waitlist in the order copies will be handed out, read from memory; holds placed on other
+    // instances show up after their next restart
+    public ResponseEntity<List<BookHoldSummary>> getHolds(Long bookId) {
+        return new ResponseEntity<>(holdQueue.waiting(bookId, LocalDateTime.now()), HttpStatus.OK);
+    }
+
+    // Called inside the transaction of a return or of a resize that adds copies. Takes up to `copies` of
+    // the oldest live holds on the book, by time placed, by deleting their rows and returns the holders.
+    // The holds are read from book_hold rather than the queue, which misses holds placed on other
+    // instances and ones whose commit has not reached it yet. Usually that is one indexed read and one
+    // delete per copy; a hold whose row another return already took is skipped and the read continues
+    // past it. The queue changes only once the transaction commits.
+    @Transactional
+    public List<Long> claim(Long bookId, int copies) {
+        List<Long> holders = new ArrayList<>(copies);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime afterPlacedAt = null;
+        long afterId = 0;
+        while (holders.size() < copies) {
+            List<BookHoldSummary> holds = bookHoldRepository.findLiveHoldsAfter(bookId, afterPlacedAt, afterId, now, Limit.of(copies - holders.size()));
+            if (holds.isEmpty()) {
+                break;
+            }
+            for (BookHoldSummary hold : holds) {
+                if (bookHoldRepository.deleteHold(hold.id()) == 1) {
+                    holders.add(hold.customerId());
+                }
+                AfterCommit.run(() -> holdQueue.remove(bookId, hold.id()));
+                afterPlacedAt = hold.placedAt();
+                afterId = hold.id();
+            }
+        }
+        return holders;
+    }
+
+    @Scheduled(fixedDelayString = "${library.holds.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpiredHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        bookHoldRepository.deleteExpired(now);
+        AfterCommit.run(() -> holdQueue.removeExpired(now));
+    }
+}
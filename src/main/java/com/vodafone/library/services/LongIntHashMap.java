@@ -0,0 +1,167 @@
+package com.vodafone.library.services;
+
+import java.util.Arrays;
+
+// Open-addressing map from long to positive int counts: two flat arrays instead of a boxed Long and
+// Integer plus an entry object per mapping. A zero value marks a free slot, so counts must stay above
+// zero; removal shifts the following run back instead of leaving tombstones. Not thread-safe.
+final class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 8;
+
+    interface Entry {
+        void accept(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int slot = find(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    // Adds delta (positive) to the count for key and returns the new count
+    int addTo(long key, int delta) {
+        int slot = slot(key);
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return delta;
+    }
+
+    void remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (values[next] != 0) {
+            int home = slot(keys[next]);
+            // Move the entry back into the hole unless its home slot lies between the hole and it
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[free] = 0;
+        size--;
+    }
+
+    void forEach(Entry action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != 0) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    // Keeps the `limit` highest counts and drops the rest; among equal counts at the cut, the ones
+    // met first in table order stay.
+    void retainTop(int limit) {
+        if (size <= limit) {
+            return;
+        }
+        int[] counts = new int[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != 0) {
+                counts[n++] = values[slot];
+            }
+        }
+        Arrays.sort(counts);
+        int cut = limit == 0 ? Integer.MAX_VALUE : counts[size - limit];
+        int atCut = 0;
+        for (int i = size - limit; i < size; i++) {
+            if (counts[i] == cut) {
+                atCut++;
+            }
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize(limit));
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            int value = oldValues[slot];
+            if (value > cut || (value == cut && atCut-- > 0)) {
+                insert(oldKeys[slot], value);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int slot = slot(key);
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads sequential ids
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != 0) {
+                insert(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void insert(long key, int value) {
+        int slot = slot(key);
+        while (values[slot] != 0) {
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        size = 0;
+    }
+
+    // Smallest power of two that holds expectedSize entries below the 3/4 load factor
+    private static int tableSize(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
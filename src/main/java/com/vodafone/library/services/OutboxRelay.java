@@ -0,0 +1,120 @@
+package com.vodafone.library.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vodafone.library.dto.CirculationEvent;
+import com.vodafone.library.model.OutboxEvent;
+import com.vodafone.library.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Copies committed outbox rows to the circulation event log in outbox id order and deletes them once the
+// log has them on disk. It runs on its own thread so a long scheduled job cannot hold events back. A
+// crash between the append and the delete relays that batch again on the next run: delivery is at least
+// once, and each event carries a random eventId, written with its outbox row, for consumers that need to
+// drop repeats. The events of one transaction keep the order they were written in, but id order is not
+// commit order across transactions: ids come from a pooled sequence before commit, and a return handed
+// to a hold takes no lock on the book row. Only one instance should relay into a given log directory.
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private CirculationEventLog circulationEventLog;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${library.events.relay-enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.events.relay-interval:200ms}")
+    private Duration interval;
+
+    @Value("${library.events.relay-batch-size:500}")
+    private int batchSize;
+
+    private ScheduledExecutorService executor;
+
+    // Not before the application is ready: a relay thread querying while beans are still being created
+    // deadlocks with the startup thread over singleton creation
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::scheduledRelay, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Lets a running batch finish rather than interrupting it between the append and the delete
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void scheduledRelay() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying in {}", interval, e);
+        }
+    }
+
+    // Drains the outbox in batches until it is empty; returns how many events were relayed
+    int relay() {
+        int relayed = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxEventRepository.findBatch(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return relayed;
+            }
+            List<byte[]> payloads = new ArrayList<>(batch.size());
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                payloads.add(payload(event));
+                ids.add(event.getId());
+            }
+            circulationEventLog.append(payloads);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids));
+            relayed += batch.size();
+            if (batch.size() < batchSize) {
+                return relayed;
+            }
+        }
+    }
+
+    private byte[] payload(OutboxEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(new CirculationEvent(event.getEventId(), event.getEventType(), event.getBookId(),
+                    event.getCustomerId(), event.getBorrowingRecordId(), event.getOccurredAt()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event " + event.getId(), e);
+        }
+    }
+}
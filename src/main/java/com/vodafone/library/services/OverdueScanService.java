@@ -0,0 +1,185 @@
+package com.vodafone.library.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vodafone.library.dto.OverdueLoanSummary;
+import com.vodafone.library.dto.OverdueScanReport;
+import com.vodafone.library.model.OverdueScanState;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import com.vodafone.library.repository.OverdueLoanRepository;
+import com.vodafone.library.repository.OverdueScanStateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Nightly overdue check that only looks at what changed since the last run: loans that fell due since
+// then, read off the due-date index, and loans modified since then, read off the modification index.
+// Ids are streamed in a read-only transaction and handed out in chunks to a small pool of writers,
+// each chunk in its own transaction. The watermark only moves once every chunk has committed, so a
+// failed run is simply repeated in full by the next one.
+@Slf4j
+@Service
+public class OverdueScanService {
+
+    // Loans modified just before a run started may commit after it has read them; the next run looks
+    // back this far to pick those up. Checking a loan twice is harmless.
+    private static final Duration MODIFIED_OVERLAP = Duration.ofMinutes(5);
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+    @Autowired
+    private OverdueLoanRepository overdueLoanRepository;
+    @Autowired
+    private OverdueScanStateRepository overdueScanStateRepository;
+    @Autowired
+    private OverdueScanWriter overdueScanWriter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${library.overdue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.overdue.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${library.overdue.parallelism:2}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "overdue-scan-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${library.overdue.cron:0 0 2 * * *}")
+    public void scheduledScan() {
+        if (enabled) {
+            scan();
+        }
+    }
+
+    // 409 while another scan is running
+    public ResponseEntity<OverdueScanReport> scan() {
+        if (!running.compareAndSet(false, true)) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        try {
+            return new ResponseEntity<>(scan(LocalDate.now()), HttpStatus.OK);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    OverdueScanReport scan(LocalDate today) {
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        OverdueScanState state = overdueScanStateRepository.findById(OverdueScanState.ID).orElse(null);
+        LocalDate from = state == null ? LocalDate.EPOCH : state.getScannedBefore();
+
+        long[] due = run(today, ids -> ids.streamIdsDueBetween(from, today));
+        // The first run has just checked every loan due before today, so there is nothing changed to add
+        long[] changed = state == null ? new long[2]
+                : run(today, ids -> ids.streamIdsModifiedSince(state.getModifiedSince()));
+
+        overdueScanStateRepository.save(new OverdueScanState(OverdueScanState.ID, today, startedAt.minus(MODIFIED_OVERLAP)));
+        OverdueScanReport report = new OverdueScanReport(today, due[0], changed[0], due[1] + changed[1],
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Overdue scan finished: {}", report);
+        return report;
+    }
+
+    // Returns {loans checked, loans found overdue}. Reading stops while every writer is busy, so at most
+    // 2 * parallelism chunks are held in memory.
+    private long[] run(LocalDate today, Function<BorrowingRecordRepository, Stream<Long>> query) {
+        Semaphore permits = new Semaphore(2 * parallelism);
+        AtomicLong overdue = new AtomicLong();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        long[] checked = new long[1];
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<Long> ids = query.apply(borrowingRecordRepository)) {
+                List<Long> chunk = new ArrayList<>(chunkSize);
+                Iterator<Long> iterator = ids.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                        checked[0] += chunk.size();
+                        List<Long> batch = List.copyOf(chunk);
+                        chunk.clear();
+                        permits.acquireUninterruptibly();
+                        writes.add(CompletableFuture
+                                .runAsync(() -> overdue.addAndGet(write(batch, today)), executor)
+                                .whenComplete((result, failure) -> permits.release()));
+                    }
+                }
+            }
+        });
+        // Throws if any chunk failed, which leaves the watermark where it was
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        return new long[]{checked[0], overdue.get()};
+    }
+
+    private int write(List<Long> borrowingRecordIds, LocalDate today) {
+        try {
+            return overdueScanWriter.write(borrowingRecordIds, today);
+        } catch (DataIntegrityViolationException e) {
+            // A loan in the chunk was returned between the read and the insert; the retry no longer sees it
+            return overdueScanWriter.write(borrowingRecordIds, today);
+        }
+    }
+
+    // The current report, most overdue first, as NDJSON
+    @Transactional(readOnly = true)
+    public void exportOverdueLoans(OutputStream outputStream) throws IOException {
+        try (Stream<OverdueLoanSummary> loans = overdueLoanRepository.streamAllSummaries()) {
+            Iterator<OverdueLoanSummary> iterator = loans.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                outputStream.write('\n');
+            }
+        }
+        outputStream.flush();
+    }
+}
@@ -0,0 +1,48 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import com.vodafone.library.model.OverdueLoan;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import com.vodafone.library.repository.OverdueLoanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Checks one chunk of loans in its own transaction and rewrites their rows in the overdue report.
+// Only the report table is written; the loans are read without locks, so checkouts and returns
+// never wait on the scan.
+@Component
+public class OverdueScanWriter {
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+    @Autowired
+    private OverdueLoanRepository overdueLoanRepository;
+
+    // Returns how many of the loans are overdue. Loans that are no longer overdue, for instance because
+    // their due date was moved, drop out of the report.
+    @Transactional
+    public int write(List<Long> borrowingRecordIds, LocalDate today) {
+        Map<Long, LocalDateTime> detectedAt = overdueLoanRepository.findAllById(borrowingRecordIds).stream()
+                .collect(Collectors.toMap(OverdueLoan::getBorrowingRecordId, OverdueLoan::getDetectedAt));
+        overdueLoanRepository.deleteByBorrowingRecordIdIn(borrowingRecordIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OverdueLoan> overdue = new ArrayList<>();
+        for (BorrowingRecordSummary loan : borrowingRecordRepository.findSummariesByIdIn(borrowingRecordIds)) {
+            if (loan.returnDate() != null && loan.returnDate().isBefore(today)) {
+                overdue.add(new OverdueLoan(loan.id(), loan.customerId(), loan.bookId(), loan.returnDate(),
+                        detectedAt.getOrDefault(loan.id(), now)));
+            }
+        }
+        overdueLoanRepository.saveAll(overdue);
+        return overdue.size();
+    }
+}
@@ -0,0 +1,34 @@
+package com.vodafone.library.services;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class Pagination {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private Pagination() {
+    }
+
+    public static long after(Long afterId) {
+        return afterId == null ? 0L : afterId;
+    }
+
+    public static Limit limit(int size) {
+        return Limit.of(Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    // A full page means there may be more rows; the last id becomes the afterId of the next request.
+    public static <T> HttpHeaders cursorHeaders(List<T> page, Limit limit, Function<T, Long> idOf) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!page.isEmpty() && page.size() == limit.max()) {
+            headers.add(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(page.get(page.size() - 1))));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,77 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.AuthorSummary;
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.repository.ReactiveAuthorRepository;
+import com.vodafone.library.repository.ReactiveBookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+// Non-blocking counterparts of the BookService and AuthorService reads. Nothing here holds a thread
+// while the database works; rows are emitted as the driver produces them and demand flows back to it.
+@Service
+@ConditionalOnProperty(name = "library.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogueService {
+
+    @Autowired
+    private ReactiveBookRepository reactiveBookRepository;
+    @Autowired
+    private ReactiveAuthorRepository reactiveAuthorRepository;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    public Mono<ResponseEntity<List<BookSummary>>> getAllBooks(Long afterId, int size) {
+        Limit limit = Pagination.limit(size);
+        return reactiveBookRepository.findSummariesAfter(Pagination.after(afterId), limit.max())
+                .collectList()
+                .map(books -> new ResponseEntity<>(books, Pagination.cursorHeaders(books, limit, BookSummary::id), HttpStatus.OK));
+    }
+
+    public Flux<BookSummary> streamBooks() {
+        return reactiveBookRepository.streamAllSummaries();
+    }
+
+    public Mono<ResponseEntity<BookSummary>> getBookById(Long id) {
+        return reactiveBookRepository.findSummaryById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // Ranked by the in-memory index, as in BookService.searchByTitle; only the hits are read.
+    public Flux<BookSummary> searchByTitle(String title) {
+        List<Long> ids = bookSearchIndex.search(title, Pagination.MAX_PAGE_SIZE);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return reactiveBookRepository.findSummariesByIdIn(ids)
+                .collectMap(BookSummary::id)
+                .flatMapIterable(booksById -> ids.stream().map(booksById::get).filter(Objects::nonNull).toList());
+    }
+
+    public Flux<BookSummary> searchByAuthorId(Long authorId) {
+        return reactiveBookRepository.findSummariesByAuthorId(authorId);
+    }
+
+    public Flux<BookSummary> searchByIsbn(String isbn) {
+        return reactiveBookRepository.findSummariesByIsbn(isbn);
+    }
+
+    public Flux<AuthorSummary> streamAuthors() {
+        return reactiveAuthorRepository.streamAllSummaries();
+    }
+
+    public Mono<ResponseEntity<AuthorSummary>> getAuthorById(Long id) {
+        return reactiveAuthorRepository.findSummaryById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,295 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// "Customers who borrowed this also borrowed" model. For each book it counts how many customers borrowed
+// it together with each other book, in a LongIntHashMap per book. Every checkout pairs the book with the
+// customer's last `history-per-customer` distinct books, so a borrow costs that many increments. A book's
+// row is cut back to its `neighbours-per-book` strongest pairs whenever it reaches twice that, which
+// bounds memory per book; the slack lets a new pair collect a few borrows before it competes. Histories
+// are kept for the `max-customers` customers who borrowed most recently.
+@Component
+public class RelatedBooksIndex {
+
+    @Value("${library.related.neighbours-per-book:50}")
+    private int neighboursPerBook;
+
+    @Value("${library.related.history-per-customer:50}")
+    private int historyPerCustomer;
+
+    @Value("${library.related.max-customers:100000}")
+    private int maxCustomers;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // One rebuild at a time; a lock rather than a monitor, as a rebuild blocks on the database
+    private final Lock rebuildLock = new ReentrantLock();
+    private Model model = new Model();
+    // Borrows applied while a rebuild runs, replayed onto the rebuilt model; null otherwise
+    private List<Loan> pending;
+
+    record Related(long bookId, int coBorrowers, double score) {
+    }
+
+    private record Loan(long recordId, long customerId, long bookId) {
+    }
+
+    private final class Model {
+        private final Map<Long, LongIntHashMap> neighbours = new HashMap<>();
+        private final LongIntHashMap borrowers = new LongIntHashMap();
+        // Least recently borrowing customer first; a customer who comes back after being dropped starts
+        // a new history
+        private final Map<Long, History> histories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, History> eldest) {
+                return size() > maxCustomers;
+            }
+        };
+    }
+
+    // The distinct books a customer borrowed most recently, oldest overwritten first
+    private static final class History {
+        private final long[] books;
+        private int size;
+        private int next;
+
+        private History(int capacity) {
+            books = new long[capacity];
+        }
+
+        private boolean contains(long bookId) {
+            for (int i = 0; i < size; i++) {
+                if (books[i] == bookId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void add(long bookId) {
+            books[next] = bookId;
+            next = (next + 1) % books.length;
+            size = Math.min(size + 1, books.length);
+        }
+    }
+
+    // Every book a customer borrowed, in record order, for a rebuild
+    private static final class LoanSequence {
+        private long[] books = new long[4];
+        private int size;
+
+        private void add(long bookId) {
+            if (size == books.length) {
+                books = Arrays.copyOf(books, size * 2);
+            }
+            books[size++] = bookId;
+        }
+    }
+
+    public void borrowed(Long recordId, Long customerId, Long bookId) {
+        AfterCommit.run(() -> record(new Loan(recordId, customerId, bookId)));
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            model.neighbours.remove(bookId);
+            model.borrowers.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return model.neighbours.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranked by cosine similarity of the two books' borrower sets, so a bestseller that everyone also
+    // borrowed does not top every list; the co-borrower count breaks ties.
+    List<Related> related(long bookId, int limit) {
+        List<Related> candidates;
+        lock.readLock().lock();
+        try {
+            LongIntHashMap row = model.neighbours.get(bookId);
+            if (row == null || limit <= 0) {
+                return List.of();
+            }
+            LongIntHashMap borrowers = model.borrowers;
+            double own = Math.max(1, borrowers.get(bookId));
+            List<Related> scored = new ArrayList<>(row.size());
+            row.forEach((other, count) ->
+                    scored.add(new Related(other, count, count / Math.sqrt(own * Math.max(1, borrowers.get(other))))));
+            candidates = scored;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Related::score).reversed()
+                        .thenComparing(Comparator.comparingInt(Related::coBorrowers).reversed())
+                        .thenComparingLong(Related::bookId))
+                .limit(limit)
+                .toList();
+    }
+
+    // Replaces the model with one counted from the stream `records` opens. The loans are grouped by
+    // customer on this thread, then counted in parallel with each worker owning a disjoint share of the
+    // books, so no row is shared and no locking is needed until the swap. Borrows that commit from before
+    // the stream is opened keep updating the old model and are replayed onto the new one unless the
+    // stream had their record. Record ids are allocated in pooled blocks, so not in commit order, and a
+    // loan is only known to be in the stream by its id.
+    public void rebuild(Supplier<Stream<BorrowingRecordSummary>> records) {
+        rebuildLock.lock();
+        try {
+            rebuildLocked(records);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildLocked(Supplier<Stream<BorrowingRecordSummary>> records) {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Model rebuilt = null;
+        // Used as a set: every record id the stream had maps to 1
+        LongIntHashMap seen = new LongIntHashMap();
+        try {
+            Map<Long, LoanSequence> loansByCustomer = new HashMap<>();
+            try (Stream<BorrowingRecordSummary> stream = records.get()) {
+                Iterator<BorrowingRecordSummary> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    BorrowingRecordSummary record = iterator.next();
+                    loansByCustomer.computeIfAbsent(record.customerId(), id -> new LoanSequence()).add(record.bookId());
+                    seen.addTo(record.id(), 1);
+                }
+            }
+            rebuilt = count(loansByCustomer);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    model = rebuilt;
+                    for (Loan loan : pending) {
+                        if (seen.get(loan.recordId()) == 0) {
+                            apply(model, loan);
+                        }
+                    }
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void record(Loan loan) {
+        lock.writeLock().lock();
+        try {
+            apply(model, loan);
+            if (pending != null) {
+                pending.add(loan);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Model target, Loan loan) {
+        History history = target.histories.computeIfAbsent(loan.customerId(), id -> new History(historyPerCustomer));
+        if (history.contains(loan.bookId())) {
+            return; // Borrowing the same book again says nothing new
+        }
+        for (int i = 0; i < history.size; i++) {
+            long other = history.books[i];
+            increment(target, other, loan.bookId());
+            increment(target, loan.bookId(), other);
+        }
+        target.borrowers.addTo(loan.bookId(), 1);
+        history.add(loan.bookId());
+    }
+
+    private void increment(Model target, long bookId, long other) {
+        LongIntHashMap row = target.neighbours.computeIfAbsent(bookId, id -> new LongIntHashMap());
+        row.addTo(other, 1);
+        if (row.size() >= 2 * neighboursPerBook) {
+            row.retainTop(neighboursPerBook);
+        }
+    }
+
+    private Model count(Map<Long, LoanSequence> loansByCustomer) {
+        int partitions = Runtime.getRuntime().availableProcessors();
+        List<Model> parts = IntStream.range(0, partitions).parallel()
+                .mapToObj(partition -> countPartition(loansByCustomer, partition, partitions))
+                .toList();
+        Model merged = new Model();
+        for (Model part : parts) {
+            merged.neighbours.putAll(part.neighbours);
+            part.borrowers.forEach(merged.borrowers::addTo);
+        }
+        // Every worker replays the same histories; keep one set for the incremental updates that follow
+        merged.histories.putAll(parts.get(0).histories);
+        return merged;
+    }
+
+    // Replays every customer's loans exactly as apply would, but only counts into rows of books whose
+    // hash falls in this partition
+    private Model countPartition(Map<Long, LoanSequence> loansByCustomer, int partition, int partitions) {
+        Model part = new Model();
+        loansByCustomer.forEach((customerId, loans) -> {
+            History history = new History(historyPerCustomer);
+            for (int i = 0; i < loans.size; i++) {
+                long bookId = loans.books[i];
+                if (history.contains(bookId)) {
+                    continue;
+                }
+                boolean owned = owns(bookId, partition, partitions);
+                for (int j = 0; j < history.size; j++) {
+                    long other = history.books[j];
+                    if (owns(other, partition, partitions)) {
+                        increment(part, other, bookId);
+                    }
+                    if (owned) {
+                        increment(part, bookId, other);
+                    }
+                }
+                if (owned) {
+                    part.borrowers.addTo(bookId, 1);
+                }
+                history.add(bookId);
+            }
+            if (partition == 0) {
+                part.histories.put(customerId, history);
+            }
+        });
+        return part;
+    }
+
+    private static boolean owns(long bookId, int partition, int partitions) {
+        return Math.floorMod(Long.hashCode(bookId), partitions) == partition;
+    }
+}
@@ -0,0 +1,53 @@
+-- The schema as Hibernate's ddl-auto generated it: tables, sequences, keys and the unique constraints
+-- declared on the entities. H2 adds an index for each foreign key.
+
+create sequence author_seq start with 1 increment by 50;
+create sequence book_seq start with 1 increment by 50;
+create sequence customer_seq start with 1 increment by 50;
+create sequence borrowing_record_seq start with 1 increment by 50;
+
+create table author (
+    id          bigint       not null,
+    name        varchar(255) not null,
+    birth_date  date         not null,
+    nationality varchar(255) not null,
+    constraint pk_author primary key (id)
+);
+
+create table book (
+    id               bigint       not null,
+    title            varchar(255) not null,
+    author_id        bigint       not null,
+    isbn             varchar(255) not null,
+    publication_date date         not null,
+    genre            varchar(255) not null,
+    available        boolean      not null,
+    total_copies     integer      not null,
+    available_copies integer      not null,
+    constraint pk_book primary key (id),
+    constraint uk_book_isbn unique (isbn),
+    constraint fk_book_author foreign key (author_id) references author (id)
+);
+
+create table customer (
+    id           bigint       not null,
+    name         varchar(255) not null,
+    email        varchar(255) not null,
+    phone_number varchar(255) not null,
+    password     varchar(255) not null,
+    address      varchar(255) not null,
+    constraint pk_customer primary key (id),
+    constraint uk_customer_email unique (email),
+    constraint uk_customer_phone_number unique (phone_number)
+);
+
+create table borrowing_record (
+    id          bigint not null,
+    customer_id bigint not null,
+    book_id     bigint not null,
+    borrow_date date   not null,
+    retur_date  date,
+    constraint pk_borrowing_record primary key (id),
+    constraint fk_borrowing_record_customer foreign key (customer_id) references customer (id),
+    constraint fk_borrowing_record_book foreign key (book_id) references book (id)
+);
@@ -0,0 +1,15 @@
+-- One index per repository finder. Every finder that pages or sorts by id has id as the last column,
+-- so a page is a range scan that stops after `size` rows instead of a sort of every match.
+
+-- BookRepository.findByAuthorId, findSummariesByAuthorId
+create index ix_book_author_id on book (author_id, id);
+-- Browsing by genre and by title (title search itself goes through the in-memory index)
+create index ix_book_genre on book (genre, id);
+create index ix_book_title on book (title);
+
+-- BorrowingRecordRepository.findByCustomerId, findSummariesByCustomerIdAfter
+create index ix_borrowing_record_customer on borrowing_record (customer_id, id);
+-- BorrowingRecordRepository.findByBookId, findSummariesByBookIdAfter
+create index ix_borrowing_record_book on borrowing_record (book_id, id);
+-- Active loans of a book: book_id = ? and retur_date is null
+create index ix_borrowing_record_book_return on borrowing_record (book_id, retur_date);
@@ -0,0 +1,25 @@
+-- Incremental overdue scan: a due-date index for the loans that fell due since the last run, a
+-- modification stamp for the loans changed since then, the report table and the job's watermark.
+
+alter table borrowing_record add column last_modified timestamp(6) default current_timestamp not null;
+create index ix_borrowing_record_due on borrowing_record (retur_date, id);
+create index ix_borrowing_record_modified on borrowing_record (last_modified, id);
+
+-- Rows go away with their loan when it is returned
+create table overdue_loan (
+    borrowing_record_id bigint       not null,
+    customer_id         bigint       not null,
+    book_id             bigint       not null,
+    due_date            date         not null,
+    detected_at         timestamp(6) not null,
+    constraint pk_overdue_loan primary key (borrowing_record_id),
+    constraint fk_overdue_loan_borrowing_record foreign key (borrowing_record_id) references borrowing_record (id) on delete cascade
+);
+create index ix_overdue_loan_due on overdue_loan (due_date, borrowing_record_id);
+
+create table overdue_scan_state (
+    id             integer      not null,
+    scanned_before date         not null,
+    modified_since timestamp(6) not null,
+    constraint pk_overdue_scan_state primary key (id)
+);
@@ -0,0 +1,18 @@
+-- Waitlist for books with no copy on the shelf. A book's holds are served oldest first, which the
+-- (book_id, id) index returns in order; one hold per customer and book.
+
+create sequence book_hold_seq start with 1 increment by 50;
+
+create table book_hold (
+    id          bigint       not null,
+    book_id     bigint       not null,
+    customer_id bigint       not null,
+    placed_at   timestamp(6) not null,
+    expires_at  timestamp(6) not null,
+    constraint pk_book_hold primary key (id),
+    constraint uk_book_hold_book_customer unique (book_id, customer_id),
+    constraint fk_book_hold_book foreign key (book_id) references book (id) on delete cascade,
+    constraint fk_book_hold_customer foreign key (customer_id) references customer (id) on delete cascade
+);
+create index ix_book_hold_book on book_hold (book_id, id);
+create index ix_book_hold_expires on book_hold (expires_at);
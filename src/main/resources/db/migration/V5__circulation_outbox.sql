@@ -0,0 +1,15 @@
+-- Transactional outbox for circulation events. A row is inserted in the same transaction as the change it
+-- describes and deleted once the relay has copied it to the event log, so the table only holds events
+-- still waiting to be relayed; the relay reads them oldest first off the primary key.
+
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    id                  bigint       not null,
+    event_type          varchar(32)  not null,
+    book_id             bigint       not null,
+    customer_id         bigint,
+    borrowing_record_id bigint,
+    occurred_at         timestamp(6) not null,
+    constraint pk_outbox_event primary key (id)
+);
@@ -0,0 +1,4 @@
+-- The id consumers recognise an event by. The outbox row id can't be it: the database is in memory, so
+-- its sequence starts over on every restart while the event log keeps what was relayed before.
+
+alter table outbox_event add column event_id uuid default random_uuid() not null;
@@ -0,0 +1,12 @@
+-- H2 gave each foreign key in V1 an index of its own on the referencing column, and V2's (column, id)
+-- indexes then duplicated them, so every insert maintained both. Re-created now that the composites
+-- exist, the keys use those instead, and the single-column indexes are dropped with the old keys.
+
+alter table book drop constraint fk_book_author;
+alter table book add constraint fk_book_author foreign key (author_id) references author (id);
+
+alter table borrowing_record drop constraint fk_borrowing_record_customer;
+alter table borrowing_record add constraint fk_borrowing_record_customer foreign key (customer_id) references customer (id);
+
+alter table borrowing_record drop constraint fk_borrowing_record_book;
+alter table borrowing_record add constraint fk_borrowing_record_book foreign key (book_id) references book (id);
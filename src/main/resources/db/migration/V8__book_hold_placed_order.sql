@@ -0,0 +1,6 @@
+-- Holds are served in the order they were placed. Ids come from a pooled sequence, so instances hand
+-- them out in blocks and id order is not placement order; placed_at is, with id only breaking ties.
+-- The (book_id, customer_id) unique key still backs the foreign key to book.
+
+drop index ix_book_hold_book;
+create index ix_book_hold_book_placed on book_hold (book_id, placed_at, id);
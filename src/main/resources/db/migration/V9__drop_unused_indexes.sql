@@ -0,0 +1,7 @@
+-- Indexes from V2 that no query reads: titles are searched through the in-memory index, nothing lists
+-- books by genre, and a return deletes its loan, so no query looks for a book's open loans by
+-- retur_date. Each one only added work to every book insert and every borrow and return.
+
+drop index ix_book_genre;
+drop index ix_book_title;
+drop index ix_borrowing_record_book_return;
@@ -0,0 +1,29 @@
+package com.vodafone.library;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Starts the whole application, as the server does. A background worker that starts querying while
+// beans are still being created can deadlock with the startup thread, which shows up as a startup that
+// never finishes rather than a failure.
+class ApplicationStartupTest {
+
+    @Test
+    void testStartsWithinTimeout() {
+        ConfigurableApplicationContext context = assertTimeoutPreemptively(Duration.ofMinutes(2), () ->
+                new SpringApplicationBuilder(LibraryApplication.class)
+                        .web(WebApplicationType.NONE)
+                        .run());
+        try {
+            assertTrue(context.isActive());
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.vodafone.library;
+
+import com.vodafone.library.config.CacheConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The meters behind the latency dashboards: one timer per endpoint, one per repository method, and the
+// Hibernate and connection pool gauges.
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testEndpointAndRepositoryTimers() throws Exception {
+        mockMvc.perform(get("/api/books")).andExpect(status().isOk());
+
+        Timer endpoint = meterRegistry.find("http.server.requests").tag("uri", "/api/books").timer();
+        assertNotNull(endpoint);
+        assertTrue(endpoint.count() > 0);
+
+        Timer repository = meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "BookRepository").tag("method", "findSummariesAfter").timer();
+        assertNotNull(repository);
+        assertTrue(repository.count() > 0);
+    }
+
+    @Test
+    void testHibernateAndPoolMeters() {
+        assertNotNull(meterRegistry.find("hibernate.query.executions").meter());
+        assertNotNull(meterRegistry.find("hibernate.entities.loads").meter());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").meter());
+    }
+
+    @Test
+    void testSecondLevelCacheRegions() {
+        for (String region : new String[]{CacheConfig.AUTHOR_ENTITIES, CacheConfig.BOOK_ENTITIES, CacheConfig.AUTHOR_BOOKS}) {
+            assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", region).tag("result", "hit").meter());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.vodafone.library;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every list endpoint has to serialize its whole object graph within a fixed number of statements;
+// a lazy association slipping back in makes QueryBudgetFilter throw and the request fail.
+@SpringBootTest(properties = {
+        "library.query-budget.strict=true",
+        "library.query-budget.max-statements=2"
+})
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testListAuthorsWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/authors")).andExpect(status().isOk());
+    }
+
+    @Test
+    void testListCustomersWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/customers")).andExpect(status().isOk());
+    }
+
+    @Test
+    void testListBooksWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/books")).andExpect(status().isOk());
+    }
+
+    @Test
+    void testListBorrowingRecordsWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/borrowings")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/borrowings/search").param("customerId", "1")).andExpect(status().isOk());
+    }
+}
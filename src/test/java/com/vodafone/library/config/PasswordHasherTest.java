@@ -0,0 +1,45 @@
+package com.vodafone.library.config;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher passwordHasher = new PasswordHasher(1000);
+
+    @Test
+    void testHashAndVerify() {
+        String hash = passwordHasher.hash("password1");
+
+        assertTrue(hash.startsWith("pbkdf2$1000$"));
+        assertTrue(passwordHasher.verify("password1", hash));
+        assertFalse(passwordHasher.verify("password2", hash));
+    }
+
+    @Test
+    void testHashIsSalted() {
+        assertNotEquals(passwordHasher.hash("password1"), passwordHasher.hash("password1"));
+    }
+
+    @Test
+    void testVerifyLegacySha256() {
+        String legacy = DigestUtils.sha256Hex("password1");
+
+        assertTrue(passwordHasher.verify("password1", legacy));
+        assertFalse(passwordHasher.verify("password2", legacy));
+        assertTrue(passwordHasher.needsRehash(legacy));
+    }
+
+    @Test
+    void testNeedsRehashWhenCostChanges() {
+        String hash = new PasswordHasher(500).hash("password1");
+
+        assertTrue(passwordHasher.verify("password1", hash));
+        assertTrue(passwordHasher.needsRehash(hash));
+        assertFalse(passwordHasher.needsRehash(passwordHasher.hash("password1")));
+    }
+}
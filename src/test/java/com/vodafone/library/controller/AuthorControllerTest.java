@@ -1,5 +1,6 @@
 package com.vodafone.library.controller;
 
+import com.vodafone.library.dto.AuthorSummary;
 import com.vodafone.library.model.Author;
 import com.vodafone.library.services.AuthorService;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,13 +37,13 @@ class AuthorControllerTest {
 
     @Test
     void testGetAllAuthors() throws Exception {
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Author author2 = new Author(2L, "Author Two", LocalDate.of(1992, 2, 2), "Nationality2", null);
-        List<Author> authors = Arrays.asList(author1, author2);
+        AuthorSummary author1 = new AuthorSummary(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1");
+        AuthorSummary author2 = new AuthorSummary(2L, "Author Two", LocalDate.of(1992, 2, 2), "Nationality2");
+        List<AuthorSummary> authors = Arrays.asList(author1, author2);
 
         when(authorService.getAllAuthors()).thenReturn(new ResponseEntity<>(authors, HttpStatus.OK));
 
-        ResponseEntity<List<Author>> result = authorService.getAllAuthors();
+        ResponseEntity<List<AuthorSummary>> result = authorController.getAllAuthors();
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(authors, result.getBody());
     }
@@ -1,8 +1,12 @@
 package com.vodafone.library.controller;
 
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.dto.BookUpdateRequest;
+import com.vodafone.library.dto.ImportReport;
 import com.vodafone.library.model.Author;
 import com.vodafone.library.model.Book;
 import com.vodafone.library.services.BookService;
+import com.vodafone.library.services.CatalogueImportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,6 +16,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -27,6 +33,9 @@ class BookControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private CatalogueImportService catalogueImportService;
+
     @InjectMocks
     private BookController bookController;
 
@@ -37,14 +46,13 @@ class BookControllerTest {
 
     @Test
     void testGetAllBooks() throws Exception {
-        Author author = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Book book1 = new Book(1L, "Book One", author, "1234567890", LocalDate.of(2020, 1, 1), "Genre1", true);
-        Book book2 = new Book(2L, "Book Two", author, "0987654321", LocalDate.of(2021, 2, 2), "Genre2", true);
-        List<Book> books = Arrays.asList(book1, book2);
+        BookSummary book1 = new BookSummary(1L, "Book One", "1234567890", LocalDate.of(2020, 1, 1), "Genre1", true, 1L, "Author One");
+        BookSummary book2 = new BookSummary(2L, "Book Two", "0987654321", LocalDate.of(2021, 2, 2), "Genre2", true, 1L, "Author One");
+        List<BookSummary> books = Arrays.asList(book1, book2);
 
-        when(bookService.getAllBooks()).thenReturn(new ResponseEntity<>(books, HttpStatus.OK));
+        when(bookService.getAllBooks(null, 20)).thenReturn(new ResponseEntity<>(books, HttpStatus.OK));
 
-        ResponseEntity<List<Book>> result = bookService.getAllBooks();
+        ResponseEntity<List<BookSummary>> result = bookController.getAllBooks(null, 20);
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(books, result.getBody());
     }
@@ -79,9 +87,11 @@ class BookControllerTest {
         Author author = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
         Book book = new Book(1L, "Book One", author, "1234567890", LocalDate.of(2020, 1, 1), "Genre1", true);
 
-        when(bookService.updateBook(anyLong(), any(Book.class))).thenReturn(new ResponseEntity<>(book, HttpStatus.OK));
+        BookUpdateRequest update = new BookUpdateRequest("Book One", author, "1234567890", LocalDate.of(2020, 1, 1), "Genre1", null);
 
-        ResponseEntity<Book> response = bookController.updateBook(1L, book);
+        when(bookService.updateBook(anyLong(), any(BookUpdateRequest.class))).thenReturn(new ResponseEntity<>(book, HttpStatus.OK));
+
+        ResponseEntity<Book> response = bookController.updateBook(1L, update);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(book, response.getBody());
@@ -95,4 +105,16 @@ class BookControllerTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
+
+    @Test
+    void testImportBooks() throws Exception {
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        ImportReport report = new ImportReport(10, 8, 1, 1, 2, 5, 2000);
+
+        when(catalogueImportService.importCatalogue(body, CatalogueImportService.TEXT_CSV)).thenReturn(new ResponseEntity<>(report, HttpStatus.OK));
+
+        ResponseEntity<ImportReport> result = bookController.importBooks(CatalogueImportService.TEXT_CSV, body);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(report, result.getBody());
+    }
 }
@@ -1,5 +1,8 @@
 package com.vodafone.library.controller;
 
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import com.vodafone.library.dto.BulkBorrowingRequest;
+import com.vodafone.library.dto.BulkReturnRequest;
 import com.vodafone.library.model.Author;
 import com.vodafone.library.model.Book;
 import com.vodafone.library.model.BorrowingRecord;
@@ -21,7 +24,10 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -41,21 +47,13 @@ class BorrowingRecordControllerTest {
 
     @Test
     void testGetAllBorrowingRecords() throws Exception {
-        Customer customer1 = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Book book1 = new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true);
-        BorrowingRecord record1 = new BorrowingRecord(1L, customer1, book1, LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
-
-        Customer customer2 = new Customer(2L, "Omar Mohamed", "omarmohamed@example.com", "01198765432", "password2", "Cairo", null);
-        Author author2 = new Author(2L, "Author Two", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Book book2 = new Book(2L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true);
-        BorrowingRecord record2 = new BorrowingRecord(2L, customer2, book2, LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
+        BorrowingRecordSummary record1 = new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book Title 1", LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
+        BorrowingRecordSummary record2 = new BorrowingRecordSummary(2L, 2L, "Omar Mohamed", 2L, "Book Title 1", LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
+        List<BorrowingRecordSummary> records = Arrays.asList(record1, record2);
 
-        List<BorrowingRecord> records = Arrays.asList(record1, record2);
+        when(borrowingRecordService.getAllBorrowingRecords(null, 20)).thenReturn(new ResponseEntity<>(records, HttpStatus.OK));
 
-        when(borrowingRecordService.getAllBorrowingRecords()).thenReturn(new ResponseEntity<>(records, HttpStatus.OK));
-
-        ResponseEntity<List<BorrowingRecord>> result = borrowingRecordService.getAllBorrowingRecords();
+        ResponseEntity<List<BorrowingRecordSummary>> result = borrowingRecordController.getAllBorrowingRecords(null, 20);
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(records, result.getBody());
     }
@@ -100,15 +98,12 @@ class BorrowingRecordControllerTest {
 
     @Test
     void testSearchBorrowingRecordsByCustomerId() {
-        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Book book = new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true);
-        BorrowingRecord record = new BorrowingRecord(1L, customer, book, LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
-        List<BorrowingRecord> records = Arrays.asList(record);
+        BorrowingRecordSummary record = new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book Title 1", LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
+        List<BorrowingRecordSummary> records = Arrays.asList(record);
 
-        when(borrowingRecordService.getBorrowingRecordsByCustomerId(anyLong())).thenReturn(new ResponseEntity<>(records, HttpStatus.OK));
+        when(borrowingRecordService.getBorrowingRecordsByCustomerId(anyLong(), isNull(), anyInt())).thenReturn(new ResponseEntity<>(records, HttpStatus.OK));
 
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordController.getBorrowingRecords(1L, null);
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordController.getBorrowingRecords(1L, null, null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(records, response.getBody());
@@ -116,15 +111,12 @@ class BorrowingRecordControllerTest {
 
     @Test
     void testSearchBorrowingRecordsByBookId() {
-        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Book book = new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true);
-        BorrowingRecord record = new BorrowingRecord(1L, customer, book, LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
-        List<BorrowingRecord> records = Arrays.asList(record);
+        BorrowingRecordSummary record = new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book Title 1", LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
+        List<BorrowingRecordSummary> records = Arrays.asList(record);
 
-        when(borrowingRecordService.getBorrowingRecordsByBookId(anyLong())).thenReturn(new ResponseEntity<>(records, HttpStatus.OK));
+        when(borrowingRecordService.getBorrowingRecordsByBookId(anyLong(), isNull(), anyInt())).thenReturn(new ResponseEntity<>(records, HttpStatus.OK));
 
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordController.getBorrowingRecords(null, 1L);
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordController.getBorrowingRecords(null, 1L, null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(records, response.getBody());
@@ -132,8 +124,34 @@ class BorrowingRecordControllerTest {
 
     @Test
     void testSearchBorrowingRecordsBadRequest() {
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordController.getBorrowingRecords(null, null);
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordController.getBorrowingRecords(null, null, null, 20);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
+
+    @Test
+    void testCreateBorrowingRecords() {
+        BulkBorrowingRequest request = new BulkBorrowingRequest(1L, List.of(1L, 2L), LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26));
+        List<BorrowingRecordSummary> records = List.of(
+                new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book Title 1", LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26)),
+                new BorrowingRecordSummary(2L, 1L, "Omar Tayfour", 2L, "Book Title 2", LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 26)));
+
+        doReturn(new ResponseEntity<>(records, HttpStatus.CREATED)).when(borrowingRecordService).createBorrowingRecords(request);
+
+        ResponseEntity<?> response = borrowingRecordController.createBorrowingRecords(request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(records, response.getBody());
+    }
+
+    @Test
+    void testDeleteBorrowingRecords() {
+        BulkReturnRequest request = new BulkReturnRequest(List.of(1L, 2L));
+
+        when(borrowingRecordService.deleteBorrowingRecords(request)).thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+
+        ResponseEntity<Void> response = borrowingRecordController.deleteBorrowingRecords(request);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
 }
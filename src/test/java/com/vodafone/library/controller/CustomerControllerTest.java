@@ -1,5 +1,7 @@
 package com.vodafone.library.controller;
 
+import com.vodafone.library.dto.CustomerSummary;
+import com.vodafone.library.dto.LoginRequest;
 import com.vodafone.library.model.Customer;
 import com.vodafone.library.services.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,13 +11,19 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 
 class CustomerControllerTest {
@@ -33,13 +41,13 @@ class CustomerControllerTest {
 
     @Test
     void testGetAllCustomers() throws Exception {
-        Customer customer1 = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
-        Customer customer2 = new Customer(2L, "Omar Mohamed", "omarmohamed@example.com", "01198765432", "password2", "Cairo", null);
-        List<Customer> customers = Arrays.asList(customer1, customer2);
+        CustomerSummary customer1 = new CustomerSummary(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "Alexandria");
+        CustomerSummary customer2 = new CustomerSummary(2L, "Omar Mohamed", "omarmohamed@example.com", "01198765432", "Cairo");
+        List<CustomerSummary> customers = Arrays.asList(customer1, customer2);
 
         when(customerService.getAllCustomers()).thenReturn(new ResponseEntity<>(customers, HttpStatus.OK));
 
-        ResponseEntity<List<Customer>> result = customerService.getAllCustomers();
+        ResponseEntity<List<CustomerSummary>> result = customerController.getAllCustomers();
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(customers, result.getBody());
     }
@@ -59,10 +67,10 @@ class CustomerControllerTest {
     void testCreateCustomer() throws Exception {
         Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
 
-        when(customerService.createCustomer(any(Customer.class))).thenReturn(new ResponseEntity<>(customer, HttpStatus.CREATED));
+        when(customerService.createCustomer(any(Customer.class))).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(customer, HttpStatus.CREATED)));
 
 
-        ResponseEntity<Customer> response = customerController.createCustomer(customer);
+        ResponseEntity<Customer> response = customerController.createCustomer(customer).join();
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(customer, response.getBody());
     }
@@ -71,13 +79,47 @@ class CustomerControllerTest {
     void testUpdateCustomer() throws Exception {
         Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
 
-        when(customerService.updateCustomer(anyLong(), any(Customer.class))).thenReturn(new ResponseEntity<>(customer, HttpStatus.OK));
+        when(customerService.updateCustomer(anyLong(), any(Customer.class))).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(customer, HttpStatus.OK)));
 
-        ResponseEntity<Customer> response = customerController.updateCustomer(1L, customer);
+        ResponseEntity<Customer> response = customerController.updateCustomer(1L, customer).join();
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(customer, response.getBody());
     }
 
+    @Test
+    void testLogin_failedAttemptStartsNoSession() {
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        when(customerService.login(any(LoginRequest.class), isNull())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNAUTHORIZED)));
+
+        ResponseEntity<CustomerSummary> response = customerController.login(new LoginRequest("omartayfour@example.com", "wrong"), httpRequest).join();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertNull(httpRequest.getSession(false));
+    }
+
+    @Test
+    void testLogin_successStartsSession() {
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        CustomerSummary customer = new CustomerSummary(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "Alexandria");
+        when(customerService.login(any(LoginRequest.class), isNull())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(customer, HttpStatus.OK)));
+
+        ResponseEntity<CustomerSummary> response = customerController.login(new LoginRequest("omartayfour@example.com", "password1"), httpRequest).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(httpRequest.getSession(false));
+    }
+
+    @Test
+    void testLogin_existingSessionIsPassedOn() {
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        String sessionId = httpRequest.getSession().getId();
+        when(customerService.login(any(LoginRequest.class), eq(sessionId))).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNAUTHORIZED)));
+
+        ResponseEntity<CustomerSummary> response = customerController.login(new LoginRequest("omartayfour@example.com", "wrong"), httpRequest).join();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
     @Test
     void testDeleteCustomer() throws Exception {
         when(customerService.deleteCustomer(anyLong())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
@@ -1,7 +1,10 @@
 package com.vodafone.library.services;
 
+import com.vodafone.library.dto.AuthorSummary;
 import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
 import com.vodafone.library.repository.AuthorRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -9,8 +12,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +31,15 @@ class AuthorServiceTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private CatalogueCache catalogueCache;
+
+    @Mock
+    private BookService bookService;
+
     @InjectMocks
     private AuthorService authorService;
 
@@ -33,15 +48,22 @@ class AuthorServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void testGetAllAuthors() {
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1980, 1, 1), "Nationality One",null);
-        Author author2 = new Author(2L, "Author Two", LocalDate.of(1990, 2, 2), "Nationality Two",null);
-        List<Author> authors = Arrays.asList(author1, author2);
+        AuthorSummary author1 = new AuthorSummary(1L, "Author One", LocalDate.of(1980, 1, 1), "Nationality One");
+        AuthorSummary author2 = new AuthorSummary(2L, "Author Two", LocalDate.of(1990, 2, 2), "Nationality Two");
+        List<AuthorSummary> authors = Arrays.asList(author1, author2);
 
-        when(authorRepository.findAll()).thenReturn(authors);
+        when(authorRepository.findAllSummaries()).thenReturn(authors);
 
-        ResponseEntity<List<Author>> response = authorService.getAllAuthors();
+        ResponseEntity<List<AuthorSummary>> response = authorService.getAllAuthors();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(authors, response.getBody());
@@ -93,6 +115,7 @@ class AuthorServiceTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedAuthor, response.getBody());
+        verify(bookSearchIndex).updateAuthorName(1L, "Author Updated");
     }
 
     @Test
@@ -109,7 +132,10 @@ class AuthorServiceTest {
 
     @Test
     void testDeleteAuthor_Found() {
-        Author author = new Author(1L, "Author One", LocalDate.of(1980, 1, 1), "Nationality One",null );
+        Author author = new Author(1L, "Author One", LocalDate.of(1980, 1, 1), "Nationality One", new ArrayList<>());
+        Book first = new Book(10L, "Book One", author, "ISBN10", LocalDate.of(2000, 1, 1), "Fiction", true);
+        Book second = new Book(11L, "Book Two", author, "ISBN11", LocalDate.of(2001, 1, 1), "Fiction", true);
+        author.getBooks().addAll(List.of(first, second));
 
         when(authorRepository.findById(anyLong())).thenReturn(Optional.of(author));
 
@@ -117,6 +143,23 @@ class AuthorServiceTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(authorRepository, times(1)).deleteById(1L);
+        verify(bookService).bookDeleted(first);
+        verify(bookService).bookDeleted(second);
+        verify(bookSearchIndex).removeAuthor(1L);
+        verify(catalogueCache).evictAuthor(1L);
+    }
+
+    @Test
+    void testDeleteAuthor_indexUpdatedOnlyAfterCommit() {
+        Author author = new Author(1L, "Author One", LocalDate.of(1980, 1, 1), "Nationality One", new ArrayList<>());
+        when(authorRepository.findById(anyLong())).thenReturn(Optional.of(author));
+
+        TransactionSynchronizationManager.initSynchronization();
+        authorService.deleteAuthor(1L);
+
+        verify(bookSearchIndex, never()).removeAuthor(anyLong());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(bookSearchIndex).removeAuthor(1L);
     }
 
     @Test
@@ -0,0 +1,192 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookAvailability;
+import com.vodafone.library.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class AvailabilityCacheTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AvailabilityFeed availabilityFeed;
+
+    @InjectMocks
+    private AvailabilityCache availabilityCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(availabilityCache, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(availabilityCache, "maximumSize", 100L);
+        availabilityCache.start();
+        when(bookRepository.findAvailableCopies(1L)).thenReturn(Optional.of(3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testAvailableCopies_loadsOnce() {
+        assertEquals(OptionalInt.of(3), availabilityCache.availableCopies(1L));
+        assertEquals(OptionalInt.of(3), availabilityCache.availableCopies(1L));
+
+        verify(bookRepository, times(1)).findAvailableCopies(1L);
+    }
+
+    @Test
+    void testAvailableCopies_unknownBook() {
+        when(bookRepository.findAvailableCopies(2L)).thenReturn(Optional.empty());
+
+        assertEquals(OptionalInt.empty(), availabilityCache.availableCopies(2L));
+    }
+
+    @Test
+    void testBorrowedAndReturned_adjustCachedCount() {
+        availabilityCache.availableCopies(1L);
+
+        availabilityCache.borrowed(List.of(1L));
+        availabilityCache.borrowed(List.of(1L));
+        assertEquals(OptionalInt.of(1), availabilityCache.availableCopies(1L));
+
+        availabilityCache.returned(Map.of(1L, 2));
+        assertEquals(OptionalInt.of(3), availabilityCache.availableCopies(1L));
+        verify(bookRepository, times(1)).findAvailableCopies(1L);
+    }
+
+    @Test
+    void testBorrowed_neverBelowZero() {
+        when(bookRepository.findAvailableCopies(1L)).thenReturn(Optional.of(0));
+        availabilityCache.availableCopies(1L);
+
+        availabilityCache.borrowed(List.of(1L));
+
+        assertEquals(OptionalInt.of(0), availabilityCache.availableCopies(1L));
+    }
+
+    @Test
+    void testBorrowed_uncachedBookIsNotLoaded() {
+        availabilityCache.borrowed(List.of(1L));
+
+        verify(bookRepository, never()).findAvailableCopies(1L);
+        verify(availabilityFeed, never()).changed(any(), anyInt());
+    }
+
+    @Test
+    void testBorrowedAndReturned_publishAdjustedCount() {
+        availabilityCache.availableCopies(1L);
+
+        availabilityCache.borrowed(List.of(1L));
+        availabilityCache.returned(Map.of(1L, 1));
+
+        InOrder feed = inOrder(availabilityFeed);
+        feed.verify(availabilityFeed).changed(1L, 2);
+        feed.verify(availabilityFeed).changed(1L, 3);
+    }
+
+    @Test
+    void testBorrowed_uncachedSubscribedBookIsLoadedAndPublished() {
+        when(availabilityFeed.watched(1L)).thenReturn(true);
+        when(bookRepository.findAvailableCopies(1L)).thenReturn(Optional.of(2)); // Already counts the checkout
+
+        availabilityCache.borrowed(List.of(1L));
+
+        verify(availabilityFeed, times(1)).changed(1L, 2);
+        assertEquals(OptionalInt.of(2), availabilityCache.availableCopies(1L));
+    }
+
+    @Test
+    void testBorrowed_appliedOnlyAfterCommit() {
+        availabilityCache.availableCopies(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        availabilityCache.borrowed(List.of(1L));
+        assertEquals(OptionalInt.of(3), availabilityCache.availableCopies(1L));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(OptionalInt.of(2), availabilityCache.availableCopies(1L));
+    }
+
+    @Test
+    void testEvict_reloads() {
+        availabilityCache.availableCopies(1L);
+        when(bookRepository.findAvailableCopies(1L)).thenReturn(Optional.of(5));
+
+        availabilityCache.evict(1L);
+
+        assertEquals(OptionalInt.of(5), availabilityCache.availableCopies(1L));
+    }
+
+    @Test
+    void testEvict_publishesReloadedCountToSubscribers() {
+        availabilityCache.availableCopies(1L);
+        when(availabilityFeed.watched(1L)).thenReturn(true);
+        when(bookRepository.findAvailableCopies(1L)).thenReturn(Optional.of(5));
+
+        availabilityCache.evict(1L);
+
+        verify(availabilityFeed, times(1)).changed(1L, 5);
+    }
+
+    @Test
+    void testRefreshWatched_publishesMovedAndUncachedCounts() {
+        availabilityCache.availableCopies(1L);
+        when(availabilityFeed.watchedBooks()).thenReturn(Set.of(1L, 2L));
+        when(bookRepository.findAvailabilityByIdIn(anyCollection())).thenReturn(List.of(
+                new BookAvailability(1L, 1, true), new BookAvailability(2L, 0, false))); // Borrowed elsewhere
+
+        availabilityCache.refreshWatched();
+
+        verify(availabilityFeed).changed(1L, 1);
+        verify(availabilityFeed).changed(2L, 0);
+        assertEquals(OptionalInt.of(1), availabilityCache.availableCopies(1L));
+    }
+
+    @Test
+    void testRefreshWatched_unchangedCountNotPublished() {
+        availabilityCache.availableCopies(1L);
+        when(availabilityFeed.watchedBooks()).thenReturn(Set.of(1L));
+        when(bookRepository.findAvailabilityByIdIn(anyCollection())).thenReturn(List.of(new BookAvailability(1L, 3, true)));
+
+        availabilityCache.refreshWatched();
+
+        verify(availabilityFeed, never()).changed(any(), anyInt());
+    }
+
+    @Test
+    void testRefreshWatched_nothingWatched() {
+        when(availabilityFeed.watchedBooks()).thenReturn(Set.of());
+
+        availabilityCache.refreshWatched();
+
+        verify(bookRepository, never()).findAvailabilityByIdIn(anyCollection());
+    }
+}
@@ -0,0 +1,201 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookAvailability;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityFeedTest {
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch sendGate = new CountDownLatch(0);
+    private AvailabilityFeed availabilityFeed;
+
+    @BeforeEach
+    void setUp() {
+        availabilityFeed = new AvailabilityFeed() {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(availabilityFeed, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(availabilityFeed, "maxAllBooksSubscribers", 1);
+        ReflectionTestUtils.setField(availabilityFeed, "bufferSize", 2);
+        ReflectionTestUtils.setField(availabilityFeed, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(availabilityFeed, "heartbeat", Duration.ofHours(1));
+        ReflectionTestUtils.setField(availabilityFeed, "senderThreads", 1);
+        ReflectionTestUtils.setField(availabilityFeed, "sendTimeout", Duration.ofMillis(200));
+        availabilityFeed.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        availabilityFeed.stop();
+    }
+
+    @Test
+    void testChanged_reachesOnlySubscribersOfTheBook() throws InterruptedException {
+        availabilityFeed.subscribe(List.of(1L));
+        availabilityFeed.subscribe(List.of(2L));
+
+        availabilityFeed.changed(1L, 0);
+
+        assertEquals(List.of(new BookAvailability(1L, 0, false)), emitters.get(0).awaitSent(1));
+        assertTrue(emitters.get(1).sent().isEmpty());
+        assertTrue(availabilityFeed.watched(1L));
+        assertFalse(availabilityFeed.watched(3L));
+    }
+
+    @Test
+    void testChanged_allBooksSubscriber() throws InterruptedException {
+        availabilityFeed.subscribe(List.of());
+
+        availabilityFeed.changed(7L, 2);
+
+        assertEquals(List.of(new BookAvailability(7L, 2, true)), emitters.get(0).awaitSent(1));
+        assertTrue(availabilityFeed.watched(8L));
+    }
+
+    @Test
+    void testChanged_slowSubscriberGetsOnlyTheLatestCount() throws InterruptedException {
+        availabilityFeed.subscribe(List.of(1L));
+        sendGate = new CountDownLatch(1);
+
+        availabilityFeed.changed(1L, 5); // Taken by the sender, which is held at the gate
+        emitters.get(0).awaitSending();
+        for (int copies = 4; copies >= 0; copies--) {
+            availabilityFeed.changed(1L, copies); // Never waits for the sender
+        }
+        sendGate.countDown();
+
+        assertEquals(List.of(new BookAvailability(1L, 5, true), new BookAvailability(1L, 0, false)), emitters.get(0).awaitSent(2));
+    }
+
+    @Test
+    void testChanged_overflowSendsResync() throws InterruptedException {
+        availabilityFeed.subscribe(List.of());
+        sendGate = new CountDownLatch(1);
+
+        availabilityFeed.changed(1L, 1);
+        emitters.get(0).awaitSending();
+        availabilityFeed.changed(2L, 1);
+        availabilityFeed.changed(3L, 1);
+        availabilityFeed.changed(4L, 1); // A third distinct book is over the buffer of two
+        sendGate.countDown();
+
+        assertEquals(List.of(new BookAvailability(1L, 1, true), AvailabilityFeed.RESYNC_EVENT), emitters.get(0).awaitSent(2));
+    }
+
+    @Test
+    void testSubscribe_refusedWhenFull() {
+        assertNotNull(availabilityFeed.subscribe(List.of(1L)));
+        assertNotNull(availabilityFeed.subscribe(List.of(1L)));
+
+        assertNull(availabilityFeed.subscribe(List.of(1L)));
+        assertEquals(2, availabilityFeed.size());
+    }
+
+    @Test
+    void testSubscribe_allBooksSubscribersCapped() {
+        assertNotNull(availabilityFeed.subscribe(List.of()));
+
+        assertNull(availabilityFeed.subscribe(List.of()));
+        assertNotNull(availabilityFeed.subscribe(List.of(1L)));
+    }
+
+    @Test
+    void testStuckSend_unsubscribesAndFreesTheSender() throws InterruptedException {
+        availabilityFeed.subscribe(List.of(1L));
+        availabilityFeed.subscribe(List.of(2L));
+        CountDownLatch stuck = new CountDownLatch(1);
+        emitters.get(0).gate = stuck; // A client that stopped reading, on the only sender thread
+
+        availabilityFeed.changed(1L, 0);
+        emitters.get(0).awaitSending();
+        availabilityFeed.changed(2L, 3);
+
+        try {
+            assertEquals(List.of(new BookAvailability(2L, 3, true)), emitters.get(1).awaitSent(1));
+            assertFalse(availabilityFeed.watched(1L));
+            assertEquals(1, availabilityFeed.size());
+        } finally {
+            stuck.countDown();
+        }
+    }
+
+    @Test
+    void testFailedSend_unsubscribes() throws InterruptedException {
+        availabilityFeed.subscribe(List.of(1L));
+        emitters.get(0).failing = true;
+
+        availabilityFeed.changed(1L, 0);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (availabilityFeed.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, availabilityFeed.size());
+        assertFalse(availabilityFeed.watched(1L));
+    }
+
+    // Keeps what would have been written: the BookAvailability of each availability event, the name of
+    // any other event
+    private final class RecordingEmitter extends SseEmitter {
+        private final List<Object> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private volatile boolean failing;
+        // Holds this emitter's sends instead of the shared sendGate
+        private volatile CountDownLatch gate;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                (gate != null ? gate : sendGate).await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            Object event = builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(data -> data instanceof BookAvailability)
+                    .findFirst()
+                    .orElseGet(() -> builder.build().iterator().next().getData().toString().contains(AvailabilityFeed.RESYNC_EVENT)
+                            ? AvailabilityFeed.RESYNC_EVENT : "other");
+            sent.add(event);
+        }
+
+        private List<Object> sent() {
+            return sent;
+        }
+
+        private void awaitSending() throws InterruptedException {
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+        }
+
+        private List<Object> awaitSent(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (sent.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50); // Long enough for anything unexpected to show up as well
+            return List.copyOf(sent);
+        }
+    }
+}
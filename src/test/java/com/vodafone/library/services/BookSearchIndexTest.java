@@ -0,0 +1,108 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex bookSearchIndex;
+    private Author herbert;
+    private Author tolkien;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex = new BookSearchIndex();
+        herbert = new Author(1L, "Frank Herbert", LocalDate.of(1920, 10, 8), "American", null);
+        tolkien = new Author(2L, "J. R. R. Tolkien", LocalDate.of(1892, 1, 3), "British", null);
+        bookSearchIndex.index(new Book(1L, "Dune", herbert, "ISBN1", LocalDate.of(1965, 8, 1), "Science Fiction", true));
+        bookSearchIndex.index(new Book(2L, "Dune Messiah", herbert, "ISBN2", LocalDate.of(1969, 1, 1), "Science Fiction", true));
+        bookSearchIndex.index(new Book(3L, "The Hobbit", tolkien, "ISBN3", LocalDate.of(1937, 9, 21), "Fantasy", true));
+        bookSearchIndex.index(new Book(4L, "Dunes of the Desert", tolkien, "ISBN4", LocalDate.of(1950, 1, 1), "Travel", true));
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("j", "r", "r", "tolkien"), BookSearchIndex.tokenize("J. R. R. Tolkien"));
+        assertTrue(BookSearchIndex.tokenize("  ").isEmpty());
+    }
+
+    @Test
+    void testSearch_prefixMatchRanksWholeTermsFirst() {
+        assertEquals(List.of(1L, 2L, 4L), bookSearchIndex.search("dun", 10));
+        assertEquals(List.of(1L, 2L, 4L), bookSearchIndex.search("dune", 10));
+    }
+
+    @Test
+    void testSearch_shortTokensMatchWholeTermsOnly() {
+        assertTrue(bookSearchIndex.search("du", 10).isEmpty());
+        assertEquals(List.of(3L, 4L), bookSearchIndex.search("r", 10));
+        assertEquals(List.of(4L), bookSearchIndex.search("of dun", 10));
+    }
+
+    @Test
+    void testSearch_allTokensMustMatch() {
+        assertEquals(List.of(2L), bookSearchIndex.search("dune mess", 10));
+        assertTrue(bookSearchIndex.search("dune hobbit", 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_matchesAuthorAndGenre() {
+        assertEquals(List.of(3L, 4L), bookSearchIndex.search("tolkien", 10));
+        assertEquals(List.of(3L), bookSearchIndex.search("fantasy", 10));
+    }
+
+    @Test
+    void testSearch_respectsLimit() {
+        assertEquals(List.of(1L), bookSearchIndex.search("dune", 1));
+    }
+
+    @Test
+    void testIndex_replacesPreviousVersion() {
+        bookSearchIndex.index(new Book(3L, "The Silmarillion", tolkien, "ISBN3", LocalDate.of(1977, 9, 15), "Fantasy", true));
+
+        assertTrue(bookSearchIndex.search("hobbit", 10).isEmpty());
+        assertEquals(List.of(3L), bookSearchIndex.search("silmarillion", 10));
+        assertEquals(4, bookSearchIndex.size());
+    }
+
+    @Test
+    void testRemove() {
+        bookSearchIndex.remove(1L);
+
+        assertEquals(List.of(2L, 4L), bookSearchIndex.search("dune", 10));
+        assertEquals(3, bookSearchIndex.size());
+    }
+
+    @Test
+    void testUpdateAuthorName() {
+        bookSearchIndex.updateAuthorName(1L, "Brian Herbert");
+
+        assertEquals(List.of(1L, 2L), bookSearchIndex.search("brian", 10));
+        assertTrue(bookSearchIndex.search("frank", 10).isEmpty());
+    }
+
+    @Test
+    void testRemoveAuthor() {
+        bookSearchIndex.removeAuthor(2L);
+
+        assertTrue(bookSearchIndex.search("tolkien", 10).isEmpty());
+        assertEquals(2, bookSearchIndex.size());
+    }
+
+    @Test
+    void testIndexSummary() {
+        bookSearchIndex.index(new BookSummary(5L, "Children of Dune", "ISBN5", LocalDate.of(1976, 4, 1), "Science Fiction", true, 1L, "Frank Herbert"));
+
+        assertEquals(List.of(5L), bookSearchIndex.search("children", 10));
+        assertEquals(List.of(1L, 2L, 5L), bookSearchIndex.search("herbert", 10));
+    }
+}
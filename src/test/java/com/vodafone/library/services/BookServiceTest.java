@@ -1,24 +1,43 @@
 package com.vodafone.library.services;
 
+import com.vodafone.library.dto.BookAvailability;
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.dto.BookUpdateRequest;
+import com.vodafone.library.dto.BorrowerEstimate;
+import com.vodafone.library.dto.CirculationEventType;
+import com.vodafone.library.dto.RelatedBook;
+import com.vodafone.library.dto.TrendingBook;
+import com.vodafone.library.dto.TrendingReport;
+import com.vodafone.library.dto.TrendingWindow;
 import com.vodafone.library.model.Author;
 import com.vodafone.library.model.Book;
 import com.vodafone.library.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class BookServiceTest {
@@ -26,6 +45,30 @@ public class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Spy
+    private BookSearchIndex bookSearchIndex = new BookSearchIndex();
+
+    @Mock
+    private CatalogueCache catalogueCache;
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Mock
+    private RelatedBooksIndex relatedBooksIndex;
+
+    @Mock
+    private BorrowingTrends borrowingTrends;
+
+    @Mock
+    private CirculationOutbox circulationOutbox;
+
+    @Mock
+    private AvailabilityFeed availabilityFeed;
+
+    @Mock
+    private BorrowingRecordService borrowingRecordService;
+
     @InjectMocks
     private BookService bookService;
 
@@ -36,16 +79,38 @@ public class BookServiceTest {
 
     @Test
     void testGetAllBooks() {
-        List<Book> mockBooks = new ArrayList<>();
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        mockBooks.add(new Book(1L, "Book 1", author1,"978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true));
-        mockBooks.add(new Book(2L, "Book 2", author1, "978-3-16-148410-1", LocalDate.of(2021, 2, 2), "Fantasy", true));
-        when(bookRepository.findAll()).thenReturn(mockBooks);
+        List<BookSummary> mockBooks = new ArrayList<>();
+        mockBooks.add(new BookSummary(1L, "Book 1", "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true, 1L, "Author One"));
+        mockBooks.add(new BookSummary(2L, "Book 2", "978-3-16-148410-1", LocalDate.of(2021, 2, 2), "Fantasy", true, 1L, "Author One"));
+        when(bookRepository.findSummariesAfter(eq(0L), any(Limit.class))).thenReturn(mockBooks);
 
-        ResponseEntity<List<Book>> response = bookService.getAllBooks();
+        ResponseEntity<List<BookSummary>> response = bookService.getAllBooks(null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
+        assertNull(response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllBooks_fullPageReturnsCursor() {
+        List<BookSummary> mockBooks = new ArrayList<>();
+        mockBooks.add(new BookSummary(6L, "Book 6", "978-3-16-148410-6", LocalDate.of(2020, 1, 1), "Fiction", true, 1L, "Author One"));
+        mockBooks.add(new BookSummary(7L, "Book 7", "978-3-16-148410-7", LocalDate.of(2021, 2, 2), "Fantasy", true, 1L, "Author One"));
+        when(bookRepository.findSummariesAfter(eq(5L), any(Limit.class))).thenReturn(mockBooks);
+
+        ResponseEntity<List<BookSummary>> response = bookService.getAllBooks(5L, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllBooks_pageSizeIsCapped() {
+        when(bookRepository.findSummariesAfter(eq(0L), argThat(limit -> limit.max() == Pagination.MAX_PAGE_SIZE))).thenReturn(new ArrayList<>());
+
+        bookService.getAllBooks(null, 10_000);
+
+        verify(bookRepository).findSummariesAfter(eq(0L), argThat(limit -> limit.max() == Pagination.MAX_PAGE_SIZE));
     }
 
     @Test
@@ -80,27 +145,104 @@ public class BookServiceTest {
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(newBook.getTitle(), response.getBody().getTitle());
+        verify(circulationOutbox).record(CirculationEventType.BOOK_CREATED, 1L, null, null);
     }
 
     @Test
     void testUpdateBook_existingId() {
         Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
         Book existingBook = new Book(1L, "Book 1",author1,  "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
-        Book updatedBookDetails = new Book(1L, "Updated Book", author1 ,"978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        BookUpdateRequest updatedBookDetails = new BookUpdateRequest("Updated Book", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", 1);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<Book> response = bookService.updateBook(1L, updatedBookDetails);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(updatedBookDetails.title(), response.getBody().getTitle());
+        verify(catalogueCache, times(2)).evictBook(any(Book.class));
+        verify(circulationOutbox).record(CirculationEventType.BOOK_UPDATED, 1L, null, null);
+    }
+
+    @Test
+    void testUpdateBook_changesCopyCount() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book existingBook = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false, 1, 0);
+        BookUpdateRequest updatedBookDetails = new BookUpdateRequest("Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", 3);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.resizeCopies(1L, 3)).thenReturn(1);
+        when(bookRepository.findAvailableCopies(1L)).thenReturn(Optional.of(2));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<Book> response = bookService.updateBook(1L, updatedBookDetails);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getTotalCopies());
+        assertEquals(2, response.getBody().getAvailableCopies());
+        verify(availabilityCache, times(1)).evict(1L);
+    }
+
+    @Test
+    void testUpdateBook_addedCopiesGoToHoldsFirst() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book existingBook = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false, 1, 0);
+        BookUpdateRequest updatedBookDetails = new BookUpdateRequest("Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", 4);
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
-        when(bookRepository.save(any(Book.class))).thenReturn(updatedBookDetails);
+        when(bookRepository.resizeCopies(1L, 4)).thenReturn(1);
+        when(borrowingRecordService.handOff(existingBook, 3)).thenReturn(2);
+        when(bookRepository.findAvailableCopies(1L)).thenReturn(Optional.of(1));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         ResponseEntity<Book> response = bookService.updateBook(1L, updatedBookDetails);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedBookDetails.getTitle(), response.getBody().getTitle());
+        assertEquals(1, response.getBody().getAvailableCopies());
+        InOrder order = inOrder(bookRepository, borrowingRecordService);
+        order.verify(bookRepository).resizeCopies(1L, 4);
+        order.verify(borrowingRecordService).handOff(existingBook, 3);
+        order.verify(bookRepository).lendCopies(1L, 2);
+    }
+
+    @Test
+    void testUpdateBook_fewerCopiesThanOnLoan() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book existingBook = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true, 3, 1);
+        BookUpdateRequest updatedBookDetails = new BookUpdateRequest("Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", 1);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.resizeCopies(1L, 1)).thenReturn(0);
+
+        ResponseEntity<Book> response = bookService.updateBook(1L, updatedBookDetails);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(bookRepository, never()).save(any(Book.class));
+        verifyNoInteractions(circulationOutbox);
+    }
+
+    @Test
+    void testUpdateBook_withoutCopyCountKeepsCopies() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book existingBook = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true, 3, 1);
+        BookUpdateRequest updatedBookDetails = new BookUpdateRequest("Renamed", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", null);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<Book> response = bookService.updateBook(1L, updatedBookDetails);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getTotalCopies());
+        verify(bookRepository, never()).resizeCopies(anyLong(), anyInt());
+        verifyNoInteractions(availabilityCache);
     }
 
     @Test
     void testUpdateBook_nonExistingId() {
         Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Book updatedBookDetails = new Book(1L, "Updated Book", author1 ,"978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        BookUpdateRequest updatedBookDetails = new BookUpdateRequest("Updated Book", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", null);
         when(bookRepository.findById(1L)).thenReturn(Optional.empty());
 
         ResponseEntity<Book> response = bookService.updateBook(1L, updatedBookDetails);
@@ -117,6 +259,7 @@ public class BookServiceTest {
         ResponseEntity<?> response = bookService.deleteBook(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(circulationOutbox).record(CirculationEventType.BOOK_DELETED, 1L, null, null);
     }
 
     @Test
@@ -139,40 +282,214 @@ public class BookServiceTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void testDeleteBook_copyOnLoan() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book = new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true, 2, 1);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        ResponseEntity<?> response = bookService.deleteBook(1L);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(bookRepository, never()).deleteById(1L);
+        verifyNoInteractions(circulationOutbox);
+    }
+
+    @Test
+    void testGetAvailability() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(2));
+
+        ResponseEntity<BookAvailability> response = bookService.getAvailability(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BookAvailability(1L, 2, true), response.getBody());
+        verify(bookRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetAvailability_nonExistingId() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.empty());
+
+        ResponseEntity<BookAvailability> response = bookService.getAvailability(1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testSubscribeAvailability() {
+        SseEmitter emitter = new SseEmitter();
+        when(availabilityCache.availableCopies(any())).thenReturn(OptionalInt.of(1));
+        when(availabilityFeed.subscribe(Set.of(1L, 2L))).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> response = bookService.subscribeAvailability(List.of(1L, 2L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(emitter, response.getBody());
+        InOrder order = inOrder(availabilityFeed, availabilityCache);
+        order.verify(availabilityFeed).subscribe(Set.of(1L, 2L));
+        order.verify(availabilityCache).publish(Set.of(1L, 2L)); // Current counts only once subscribed
+    }
+
+    @Test
+    void testSubscribeAvailability_unknownBook() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(1));
+        when(availabilityCache.availableCopies(2L)).thenReturn(OptionalInt.empty());
+
+        ResponseEntity<SseEmitter> response = bookService.subscribeAvailability(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verifyNoInteractions(availabilityFeed);
+    }
+
+    @Test
+    void testSubscribeAvailability_tooManyBooks() {
+        List<Long> bookIds = LongStream.rangeClosed(1, Pagination.MAX_PAGE_SIZE + 1).boxed().toList();
+
+        ResponseEntity<SseEmitter> response = bookService.subscribeAvailability(bookIds);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(availabilityFeed);
+    }
+
+    @Test
+    void testSubscribeAvailability_feedFull() {
+        when(availabilityFeed.subscribe(any())).thenReturn(null);
+
+        ResponseEntity<SseEmitter> response = bookService.subscribeAvailability(List.of());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(availabilityCache, never()).publish(any());
+    }
+
+    @Test
+    void testGetRelatedBooks() {
+        BookSummary summary2 = new BookSummary(2L, "Book 2", "978-3-16-148410-1", LocalDate.of(2000, 1, 1), "Fiction", true, 1L, "Author One");
+        BookSummary summary3 = new BookSummary(3L, "Book 3", "978-3-16-148410-2", LocalDate.of(2000, 1, 1), "Fiction", true, 1L, "Author One");
+        when(relatedBooksIndex.related(1L, 10)).thenReturn(List.of(
+                new RelatedBooksIndex.Related(3L, 4, 0.8), new RelatedBooksIndex.Related(4L, 2, 0.5), new RelatedBooksIndex.Related(2L, 1, 0.2)));
+        when(bookRepository.findSummariesByIdIn(List.of(3L, 4L, 2L))).thenReturn(List.of(summary2, summary3));
+
+        ResponseEntity<List<RelatedBook>> response = bookService.getRelatedBooks(1L, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(new RelatedBook(summary3, 4, 0.8), new RelatedBook(summary2, 1, 0.2)), response.getBody());
+    }
+
+    @Test
+    void testGetRelatedBooks_nonExistingId() {
+        when(relatedBooksIndex.related(1L, 10)).thenReturn(List.of());
+        when(bookRepository.existsById(1L)).thenReturn(false);
+
+        ResponseEntity<List<RelatedBook>> response = bookService.getRelatedBooks(1L, 10);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testGetTrendingBooks() {
+        BookSummary summary2 = new BookSummary(2L, "Book 2", "978-3-16-148410-1", LocalDate.of(2000, 1, 1), "Fiction", true, 1L, "Author One");
+        when(borrowingTrends.trending(TrendingWindow.DAY, 10)).thenReturn(new BorrowingTrends.Trend(7, 4,
+                List.of(new BorrowingTrends.HeavyHitter(2L, 5), new BorrowingTrends.HeavyHitter(3L, 2))));
+        when(bookRepository.findSummariesByIdIn(List.of(2L, 3L))).thenReturn(List.of(summary2));
+
+        ResponseEntity<TrendingReport> response = bookService.getTrendingBooks(TrendingWindow.DAY, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new TrendingReport(TrendingWindow.DAY, 7, 4, List.of(new TrendingBook(summary2, 5))), response.getBody());
+    }
+
+    @Test
+    void testGetTrendingBooks_noBorrows() {
+        when(borrowingTrends.trending(TrendingWindow.HOUR, 10)).thenReturn(new BorrowingTrends.Trend(0, 0, List.of()));
+
+        ResponseEntity<TrendingReport> response = bookService.getTrendingBooks(TrendingWindow.HOUR, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().books().isEmpty());
+        verify(bookRepository, never()).findSummariesByIdIn(any());
+    }
+
+    @Test
+    void testGetUniqueBorrowers() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(1));
+        when(borrowingTrends.uniqueBorrowers(1L)).thenReturn(12L);
+
+        ResponseEntity<BorrowerEstimate> response = bookService.getUniqueBorrowers(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BorrowerEstimate(1L, 12), response.getBody());
+    }
+
+    @Test
+    void testGetUniqueBorrowers_nonExistingId() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.empty());
+
+        ResponseEntity<BorrowerEstimate> response = bookService.getUniqueBorrowers(1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
     @Test
     void testSearchByTitle_existingTitle() {
-        // Mock data
-        List<Book> mockBooks = new ArrayList<>();
         Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        mockBooks.add(new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true));
-        mockBooks.add(new Book(1L, "Book Title 2", author1, "978-3-16-148410-1", LocalDate.of(2000, 1, 1), "Genre 2", true));
-        when(bookRepository.findByTitleContaining("Book")).thenReturn(mockBooks);
+        Book book1 = new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true);
+        Book book2 = new Book(2L, "Book Title 2", author1, "978-3-16-148410-1", LocalDate.of(2000, 1, 1), "Genre 2", true);
+        bookSearchIndex.index(book1);
+        bookSearchIndex.index(book2);
+        BookSummary summary1 = new BookSummary(1L, "Book Title 1", "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true, 1L, "Author One");
+        BookSummary summary2 = new BookSummary(2L, "Book Title 2", "978-3-16-148410-1", LocalDate.of(2000, 1, 1), "Genre 2", true, 1L, "Author One");
+        when(bookRepository.findSummariesByIdIn(List.of(1L, 2L))).thenReturn(List.of(summary2, summary1));
 
-        ResponseEntity<List<Book>> response = bookService.searchByTitle("Book");
+        ResponseEntity<List<BookSummary>> response = bookService.searchByTitle("Book");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, response.getBody().size());
+        assertEquals(List.of(summary1, summary2), response.getBody());
     }
 
     @Test
     void testSearchByTitle_nonExistingTitle() {
-        when(bookRepository.findByTitleContaining("Nonexistent")).thenReturn(new ArrayList<>());
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        bookSearchIndex.index(new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true));
 
-        ResponseEntity<List<Book>> response = bookService.searchByTitle("Nonexistent");
+        ResponseEntity<List<BookSummary>> response = bookService.searchByTitle("Nonexistent");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
+        verify(bookRepository, never()).findSummariesByIdIn(any());
+    }
+
+    @Test
+    void testCreateBook_indexesBook() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book newBook = new Book(1L, "Dune Messiah", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        when(bookRepository.save(any(Book.class))).thenReturn(newBook);
+
+        bookService.createBook(newBook);
+
+        assertEquals(List.of(1L), bookSearchIndex.search("dune", 10));
+    }
+
+    @Test
+    void testDeleteBook_removesFromIndex() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book existingBook = new Book(1L, "Dune Messiah", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Fiction", true);
+        bookSearchIndex.index(existingBook);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+
+        bookService.deleteBook(1L);
+
+        assertTrue(bookSearchIndex.search("dune", 10).isEmpty());
     }
 
     @Test
     void testSearchByAuthorId_existingId() {
         // Mock data
-        List<Book> mockBooks = new ArrayList<>();
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        mockBooks.add(new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true));
-        when(bookRepository.findByAuthorId(1L)).thenReturn(mockBooks);
+        List<BookSummary> mockBooks = new ArrayList<>();
+        mockBooks.add(new BookSummary(1L, "Book Title 1", "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true, 1L, "Author One"));
+        when(bookRepository.findSummariesByAuthorId(1L)).thenReturn(mockBooks);
 
-        ResponseEntity<List<Book>> response = bookService.searchByAuthorId(1L);
+        ResponseEntity<List<BookSummary>> response = bookService.searchByAuthorId(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -180,9 +497,9 @@ public class BookServiceTest {
 
     @Test
     void testSearchByAuthorId_nonExistingId() {
-        when(bookRepository.findByAuthorId(1L)).thenReturn(new ArrayList<>());
+        when(bookRepository.findSummariesByAuthorId(1L)).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<Book>> response = bookService.searchByAuthorId(1L);
+        ResponseEntity<List<BookSummary>> response = bookService.searchByAuthorId(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
@@ -191,12 +508,11 @@ public class BookServiceTest {
     @Test
     void testSearchByIsbn_existingIsbn() {
         // Mock data
-        List<Book> mockBooks = new ArrayList<>();
-        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        mockBooks.add(new Book(1L, "Book Title 1", author1, "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true));
-        when(bookRepository.findByIsbn("978-3-16-148410-0")).thenReturn(mockBooks);
+        List<BookSummary> mockBooks = new ArrayList<>();
+        mockBooks.add(new BookSummary(1L, "Book Title 1", "978-3-16-148410-0", LocalDate.of(2000, 1, 1), "Genre 1", true, 1L, "Author One"));
+        when(bookRepository.findSummariesByIsbn("978-3-16-148410-0")).thenReturn(mockBooks);
 
-        ResponseEntity<List<Book>> response = bookService.searchByIsbn("978-3-16-148410-0");
+        ResponseEntity<List<BookSummary>> response = bookService.searchByIsbn("978-3-16-148410-0");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -204,9 +520,9 @@ public class BookServiceTest {
 
     @Test
     void testSearchByIsbn_nonExistingIsbn() {
-        when(bookRepository.findByIsbn("978-3-16-148410-0")).thenReturn(new ArrayList<>());
+        when(bookRepository.findSummariesByIsbn("978-3-16-148410-0")).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<Book>> response = bookService.searchByIsbn("978-3-16-148410-0");
+        ResponseEntity<List<BookSummary>> response = bookService.searchByIsbn("978-3-16-148410-0");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
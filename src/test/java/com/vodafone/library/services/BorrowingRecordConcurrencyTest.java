@@ -0,0 +1,110 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
+import com.vodafone.library.model.BorrowingRecord;
+import com.vodafone.library.model.Customer;
+import com.vodafone.library.repository.AuthorRepository;
+import com.vodafone.library.repository.BookRepository;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import com.vodafone.library.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Many customers racing for the same copy: exactly one checkout may win.
+@SpringBootTest
+class BorrowingRecordConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Author author;
+    private Book book;
+    private List<Customer> customers;
+
+    @BeforeEach
+    void setUp() {
+        author = authorRepository.save(new Author(null, "Stress Author", LocalDate.of(1970, 1, 1), "Egyptian", null));
+        book = bookRepository.save(new Book(null, "Stress Book", author, "STRESS-ISBN", LocalDate.of(2020, 1, 1), "Fiction", true));
+        customers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            customers.add(customerRepository.save(new Customer(null, "Stress Customer " + i, "stress" + i + "@example.com",
+                    String.format("015%08d", i), "password", "Cairo", null)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        borrowingRecordRepository.deleteAllById(borrowingRecordRepository.findSummariesByBookIdAfter(book.getId(), 0L, Limit.unlimited())
+                .stream().map(BorrowingRecordSummary::id).toList());
+        customerRepository.deleteAll(customers);
+        bookRepository.deleteById(book.getId());
+        authorRepository.deleteById(author.getId());
+    }
+
+    @Test
+    void testCreateBorrowingRecord_concurrentCheckoutsOfSameBook() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatus>> results = new ArrayList<>();
+        try {
+            for (Customer customer : customers) {
+                BorrowingRecord record = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return (HttpStatus) borrowingRecordService.createBorrowingRecord(record).getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            int conflicts = 0;
+            for (Future<HttpStatus> result : results) {
+                HttpStatus status = result.get();
+                if (status == HttpStatus.CREATED) {
+                    created++;
+                } else if (status == HttpStatus.CONFLICT) {
+                    conflicts++;
+                }
+            }
+
+            assertEquals(1, created);
+            assertEquals(THREADS - 1, conflicts);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, borrowingRecordRepository.findSummariesByBookIdAfter(book.getId(), 0L, Limit.unlimited()).size());
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().getAvailable());
+    }
+}
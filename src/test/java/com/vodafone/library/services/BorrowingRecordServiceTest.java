@@ -1,5 +1,10 @@
 package com.vodafone.library.services;
 
+import com.vodafone.library.dto.ActiveLoanStats;
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import com.vodafone.library.dto.BulkBorrowingRequest;
+import com.vodafone.library.dto.BulkReturnRequest;
+import com.vodafone.library.dto.CirculationEventType;
 import com.vodafone.library.model.Author;
 import com.vodafone.library.model.Book;
 import com.vodafone.library.model.BorrowingRecord;
@@ -9,9 +14,11 @@ import com.vodafone.library.repository.BorrowingRecordRepository;
 import com.vodafone.library.repository.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,10 +26,16 @@ import org.springframework.http.ResponseEntity;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class BorrowingRecordServiceTest {
@@ -36,6 +49,24 @@ public class BorrowingRecordServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private CatalogueCache catalogueCache;
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Mock
+    private RelatedBooksIndex relatedBooksIndex;
+
+    @Mock
+    private BorrowingTrends borrowingTrends;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private CirculationOutbox circulationOutbox;
+
     @InjectMocks
     private BorrowingRecordService borrowingRecordService;
 
@@ -46,12 +77,12 @@ public class BorrowingRecordServiceTest {
 
     @Test
     void testGetAllBorrowingRecords() {
-        List<BorrowingRecord> mockRecords = new ArrayList<>();
-        mockRecords.add(new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14)));
-        mockRecords.add(new BorrowingRecord(2L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14)));
-        when(borrowingRecordRepository.findAll()).thenReturn(mockRecords);
+        List<BorrowingRecordSummary> mockRecords = new ArrayList<>();
+        mockRecords.add(new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book 1", LocalDate.now(), LocalDate.now().plusDays(14)));
+        mockRecords.add(new BorrowingRecordSummary(2L, 1L, "Omar Tayfour", 1L, "Book 1", LocalDate.now(), LocalDate.now().plusDays(14)));
+        when(borrowingRecordRepository.findSummariesAfter(eq(0L), any(Limit.class))).thenReturn(mockRecords);
 
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordService.getAllBorrowingRecords();
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordService.getAllBorrowingRecords(null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
@@ -85,30 +116,74 @@ public class BorrowingRecordServiceTest {
         BorrowingRecord newRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenReturn(newRecord);
 
         ResponseEntity<BorrowingRecord> response = borrowingRecordService.createBorrowingRecord(newRecord);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(bookRepository, never()).save(any(Book.class));
         assertNotNull(response.getBody());
         assertEquals(newRecord.getCustomer(), response.getBody().getCustomer());
         assertEquals(newRecord.getBook(), response.getBody().getBook());
+        verify(circulationOutbox, times(1)).record(CirculationEventType.BOOK_BORROWED, 1L, 1L, null);
     }
 
     @Test
     void testCreateBorrowingRecord_bookNotAvailable() {
         Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
         Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
-        Book book = new Book(1L, "Book 1",author1,  "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Book book = new Book(1L, "Book 1",author1,  "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false);
         BorrowingRecord newRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.markBorrowed(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
 
         ResponseEntity<BorrowingRecord> response = borrowingRecordService.createBorrowingRecord(newRecord);
 
         assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
+    }
+
+    @Test
+    void testCreateBorrowingRecord_cachedZeroStillTriesUpdate() {
+        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true, 1, 1);
+        BorrowingRecord newRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(0)); // Returned on another instance since
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenReturn(newRecord);
+
+        ResponseEntity<BorrowingRecord> response = borrowingRecordService.createBorrowingRecord(newRecord);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(bookRepository, times(1)).markBorrowed(1L);
+    }
+
+    @Test
+    void testCreateBorrowingRecord_updatesAvailabilityCache() {
+        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true, 3, 2);
+        BorrowingRecord newRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenReturn(newRecord);
+
+        ResponseEntity<BorrowingRecord> response = borrowingRecordService.createBorrowingRecord(newRecord);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(availabilityCache, times(1)).borrowed(List.of(1L));
+        verify(relatedBooksIndex, times(1)).borrowed(null, 1L, 1L);
+        verify(borrowingTrends, times(1)).borrowed(1L, List.of(1L));
     }
 
     @Test
@@ -117,9 +192,10 @@ public class BorrowingRecordServiceTest {
         Book book = new Book(1L, "Book 1",author1,  "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
         BorrowingRecord newRecord = new BorrowingRecord(null, new Customer(), book, LocalDate.now(), LocalDate.now().plusDays(14));
 
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
 
         assertThrows(RuntimeException.class, () -> borrowingRecordService.createBorrowingRecord(newRecord));
+        verify(bookRepository, never()).markBorrowed(any());
     }
 
     @Test
@@ -176,17 +252,63 @@ public class BorrowingRecordServiceTest {
     void testDeleteBorrowingRecord_existingId() {
         Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
         Book book = new Book(1L, "Book 1",author1,  "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
-        BorrowingRecord existingRecord = new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14));
+        BorrowingRecord existingRecord = new BorrowingRecord(1L, new Customer(), book, LocalDate.now(), LocalDate.now().plusDays(14));
         when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(existingRecord));
-        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
+        when(bookRepository.markReturned(1L)).thenReturn(1);
+
+        ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecord(1L);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(bookRepository, times(1)).markReturned(1L);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(catalogueCache, times(1)).evictBook(any(Book.class));
+        verify(borrowingRecordRepository, times(1)).deleteById(1L);
+        verify(circulationOutbox, times(1)).record(CirculationEventType.BOOK_RETURNED, 1L, null, 1L);
+    }
+
+    @Test
+    void testDeleteBorrowingRecord_shelfAlreadyFull() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        BorrowingRecord existingRecord = new BorrowingRecord(1L, new Customer(), book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(existingRecord));
+        when(bookRepository.markReturned(1L)).thenReturn(0);
 
         ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecord(1L);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(availabilityCache, never()).returned(any());
         verify(borrowingRecordRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    void testDeleteBorrowingRecord_handsCopyToHolder() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false);
+        Customer holder = new Customer(2L, "Holder", "holder@example.com", "01012345679", "password1", "Alexandria", null);
+        BorrowingRecord existingRecord = new BorrowingRecord(1L, new Customer(), book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(existingRecord));
+        when(holdService.claim(1L, 1)).thenReturn(List.of(2L));
+        when(customerRepository.getReferenceById(2L)).thenReturn(holder);
+        when(borrowingRecordRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecord(1L);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(bookRepository, never()).markReturned(any());
+        verify(availabilityCache, never()).returned(any());
+        verify(borrowingRecordRepository, times(1)).saveAll(argThat(loans -> {
+            BorrowingRecord loan = loans.iterator().next();
+            return loan.getCustomer() == holder && loan.getBook() == book;
+        }));
+        verify(borrowingRecordRepository, times(1)).deleteById(1L);
+        InOrder events = inOrder(circulationOutbox);
+        events.verify(circulationOutbox).record(CirculationEventType.BOOK_RETURNED, 1L, null, 1L);
+        events.verify(circulationOutbox).recordAll(argThat(borrows -> borrows.size() == 1
+                && borrows.get(0).getEventType() == CirculationEventType.BOOK_BORROWED
+                && borrows.get(0).getCustomerId() == 2L));
+    }
+
     @Test
     void testDeleteBorrowingRecord_nonExistingId() {
         when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.empty());
@@ -198,11 +320,11 @@ public class BorrowingRecordServiceTest {
 
     @Test
     void testGetBorrowingRecordsByCustomerId_existingId() {
-        List<BorrowingRecord> mockRecords = new ArrayList<>();
-        mockRecords.add(new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14)));
-        when(borrowingRecordRepository.findByCustomerId(1L)).thenReturn(mockRecords);
+        List<BorrowingRecordSummary> mockRecords = new ArrayList<>();
+        mockRecords.add(new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book 1", LocalDate.now(), LocalDate.now().plusDays(14)));
+        when(borrowingRecordRepository.findSummariesByCustomerIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(mockRecords);
 
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordService.getBorrowingRecordsByCustomerId(1L);
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordService.getBorrowingRecordsByCustomerId(1L, null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -210,9 +332,9 @@ public class BorrowingRecordServiceTest {
 
     @Test
     void testGetBorrowingRecordsByCustomerId_nonExistingId() {
-        when(borrowingRecordRepository.findByCustomerId(1L)).thenReturn(new ArrayList<>());
+        when(borrowingRecordRepository.findSummariesByCustomerIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordService.getBorrowingRecordsByCustomerId(1L);
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordService.getBorrowingRecordsByCustomerId(1L, null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
@@ -220,11 +342,11 @@ public class BorrowingRecordServiceTest {
 
     @Test
     void testGetBorrowingRecordsByBookId_existingId() {
-        List<BorrowingRecord> mockRecords = new ArrayList<>();
-        mockRecords.add(new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14)));
-        when(borrowingRecordRepository.findByBookId(1L)).thenReturn(mockRecords);
+        List<BorrowingRecordSummary> mockRecords = new ArrayList<>();
+        mockRecords.add(new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book 1", LocalDate.now(), LocalDate.now().plusDays(14)));
+        when(borrowingRecordRepository.findSummariesByBookIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(mockRecords);
 
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordService.getBorrowingRecordsByBookId(1L);
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordService.getBorrowingRecordsByBookId(1L, null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -232,11 +354,202 @@ public class BorrowingRecordServiceTest {
 
     @Test
     void testGetBorrowingRecordsByBookId_nonExistingId() {
-        when(borrowingRecordRepository.findByBookId(1L)).thenReturn(new ArrayList<>());
+        when(borrowingRecordRepository.findSummariesByBookIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<BorrowingRecord>> response = borrowingRecordService.getBorrowingRecordsByBookId(1L);
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordService.getBorrowingRecordsByBookId(1L, null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
     }
+
+    @Test
+    void testGetActiveLoansByCustomerId() {
+        List<BorrowingRecordSummary> mockRecords = List.of(
+                new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book 1", LocalDate.now(), LocalDate.now().plusDays(14)));
+        when(borrowingRecordRepository.findActiveSummariesByCustomerId(1L)).thenReturn(mockRecords);
+
+        ResponseEntity<List<BorrowingRecordSummary>> response = borrowingRecordService.getActiveLoansByCustomerId(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockRecords, response.getBody());
+        verify(borrowingRecordRepository, never()).findSummariesByCustomerIdAfter(any(), any(), any());
+    }
+
+    @Test
+    void testGetActiveLoanStats() {
+        ActiveLoanStats stats = new ActiveLoanStats(6L, 3L, 6L, 1L);
+        when(borrowingRecordRepository.findActiveLoanStats(LocalDate.now())).thenReturn(stats);
+
+        ResponseEntity<ActiveLoanStats> response = borrowingRecordService.getActiveLoanStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+    }
+
+    @Test
+    void testCreateBorrowingRecords() {
+        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book1 = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Book book2 = new Book(2L, "Book 2", author1, "978-3-16-148410-1", LocalDate.of(2021, 1, 1), "Fiction", true);
+        BulkBorrowingRequest request = new BulkBorrowingRequest(1L, List.of(1L, 2L, 2L), LocalDate.now(), LocalDate.now().plusDays(14));
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(book1, book2));
+        when(bookRepository.markAllBorrowed(Set.of(1L, 2L))).thenReturn(2);
+        when(borrowingRecordRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<?> response = borrowingRecordService.createBorrowingRecords(request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        List<?> records = (List<?>) response.getBody();
+        assertEquals(2, records.size());
+        assertEquals("Book 2", ((BorrowingRecordSummary) records.get(1)).bookTitle());
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(catalogueCache, times(2)).evictBook(any(Book.class));
+        verify(relatedBooksIndex, times(1)).borrowed(null, 1L, 1L);
+        verify(relatedBooksIndex, times(1)).borrowed(null, 1L, 2L);
+        verify(borrowingTrends, times(1)).borrowed(1L, Set.of(1L, 2L));
+        verify(circulationOutbox, times(1)).recordAll(argThat(events -> events.size() == 2
+                && events.stream().allMatch(event -> event.getEventType() == CirculationEventType.BOOK_BORROWED && event.getCustomerId() == 1L)));
+    }
+
+    @Test
+    void testCreateBorrowingRecords_bookNotAvailable() {
+        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book1 = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Book book2 = new Book(2L, "Book 2", author1, "978-3-16-148410-1", LocalDate.of(2021, 1, 1), "Fiction", false);
+        BulkBorrowingRequest request = new BulkBorrowingRequest(1L, List.of(1L, 2L), LocalDate.now(), null);
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(book1, book2));
+
+        ResponseEntity<?> response = borrowingRecordService.createBorrowingRecords(request);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(List.of(2L), response.getBody());
+        verify(bookRepository, never()).markAllBorrowed(any());
+        verify(borrowingRecordRepository, never()).saveAll(anyList());
+        verifyNoInteractions(circulationOutbox);
+    }
+
+    @Test
+    void testCreateBorrowingRecords_bookNotFound() {
+        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
+        BulkBorrowingRequest request = new BulkBorrowingRequest(1L, List.of(1L, 2L), LocalDate.now(), null);
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of());
+
+        assertThrows(RuntimeException.class, () -> borrowingRecordService.createBorrowingRecords(request));
+    }
+
+    @Test
+    void testDeleteBorrowingRecords() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book1 = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false);
+        Book book2 = new Book(2L, "Book 2", author1, "978-3-16-148410-1", LocalDate.of(2021, 1, 1), "Fiction", false);
+        List<BorrowingRecord> records = List.of(
+                new BorrowingRecord(1L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(2L, new Customer(), book2, LocalDate.now(), null));
+        when(borrowingRecordRepository.findAllById(Set.of(1L, 2L))).thenReturn(records);
+        when(bookRepository.markAllReturned(Set.of(1L, 2L))).thenReturn(2);
+
+        ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecords(new BulkReturnRequest(List.of(1L, 2L)));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(bookRepository, times(1)).markAllReturned(Set.of(1L, 2L));
+        verify(borrowingRecordRepository, times(1)).deleteAllByIdInBatch(Set.of(1L, 2L));
+        verify(availabilityCache, times(1)).returned(Map.of(1L, 1, 2L, 1));
+        verify(circulationOutbox, times(1)).recordAll(argThat(events -> events.size() == 2
+                && events.stream().allMatch(event -> event.getEventType() == CirculationEventType.BOOK_RETURNED)));
+    }
+
+    @Test
+    void testDeleteBorrowingRecords_severalCopiesOfOneBook() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book1 = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false, 2, 0);
+        Book book2 = new Book(2L, "Book 2", author1, "978-3-16-148410-1", LocalDate.of(2021, 1, 1), "Fiction", false);
+        List<BorrowingRecord> records = List.of(
+                new BorrowingRecord(1L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(2L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(3L, new Customer(), book2, LocalDate.now(), null));
+        when(borrowingRecordRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(records);
+        when(bookRepository.returnCopies(1L, 2)).thenReturn(1);
+        when(bookRepository.markAllReturned(Set.of(2L))).thenReturn(1);
+
+        ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecords(new BulkReturnRequest(List.of(1L, 2L, 3L)));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(bookRepository, times(1)).returnCopies(1L, 2);
+        verify(bookRepository, times(1)).markAllReturned(Set.of(2L));
+        verify(availabilityCache, times(1)).returned(Map.of(1L, 2, 2L, 1));
+    }
+
+    @Test
+    void testDeleteBorrowingRecords_someCopiesHandedToHolders() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book1 = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false, 3, 0);
+        Book book2 = new Book(2L, "Book 2", author1, "978-3-16-148410-1", LocalDate.of(2021, 1, 1), "Fiction", false);
+        List<BorrowingRecord> records = List.of(
+                new BorrowingRecord(1L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(2L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(3L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(4L, new Customer(), book2, LocalDate.now(), null));
+        when(borrowingRecordRepository.findAllById(Set.of(1L, 2L, 3L, 4L))).thenReturn(records);
+        when(bookRepository.returnCopies(1L, 2)).thenReturn(1);
+        when(holdService.claim(1L, 3)).thenReturn(List.of(5L));
+        when(holdService.claim(2L, 1)).thenReturn(List.of(6L));
+        when(customerRepository.getReferenceById(any())).thenAnswer(invocation -> {
+            Customer customer = new Customer();
+            customer.setId(invocation.getArgument(0));
+            return customer;
+        });
+        when(borrowingRecordRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecords(new BulkReturnRequest(List.of(1L, 2L, 3L, 4L)));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(bookRepository, times(1)).returnCopies(1L, 2);
+        verify(bookRepository, never()).markAllReturned(any());
+        verify(availabilityCache, times(1)).returned(Map.of(1L, 2));
+        verify(borrowingTrends, times(1)).borrowed(5L, List.of(1L));
+        verify(borrowingTrends, times(1)).borrowed(6L, List.of(2L));
+    }
+
+    @Test
+    void testDeleteBorrowingRecords_shelfAlreadyFull() {
+        Author author1 = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        Book book1 = new Book(1L, "Book 1", author1, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", false, 2, 0);
+        Book book2 = new Book(2L, "Book 2", author1, "978-3-16-148410-1", LocalDate.of(2021, 1, 1), "Fiction", false);
+        Book book3 = new Book(3L, "Book 3", author1, "978-3-16-148410-2", LocalDate.of(2022, 1, 1), "Fiction", false);
+        List<BorrowingRecord> records = List.of(
+                new BorrowingRecord(1L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(2L, new Customer(), book1, LocalDate.now(), null),
+                new BorrowingRecord(3L, new Customer(), book2, LocalDate.now(), null),
+                new BorrowingRecord(4L, new Customer(), book3, LocalDate.now(), null));
+        when(borrowingRecordRepository.findAllById(Set.of(1L, 2L, 3L, 4L))).thenReturn(records);
+        when(bookRepository.returnCopies(1L, 2)).thenReturn(0);
+        when(bookRepository.markAllReturned(Set.of(2L, 3L))).thenReturn(1);
+
+        ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecords(new BulkReturnRequest(List.of(1L, 2L, 3L, 4L)));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(availabilityCache, times(1)).returned(Map.of());
+        verify(availabilityCache, times(1)).evict(1L);
+        verify(availabilityCache, times(1)).evict(2L);
+        verify(availabilityCache, times(1)).evict(3L);
+        verify(borrowingRecordRepository, times(1)).deleteAllByIdInBatch(Set.of(1L, 2L, 3L, 4L));
+    }
+
+    @Test
+    void testDeleteBorrowingRecords_missingRecord() {
+        when(borrowingRecordRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of());
+
+        ResponseEntity<Void> response = borrowingRecordService.deleteBorrowingRecords(new BulkReturnRequest(List.of(1L, 2L)));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(bookRepository, never()).markAllReturned(any());
+    }
 }
@@ -0,0 +1,127 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.TrendingWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BorrowingTrendsTest {
+
+    private static final Instant START = Instant.parse("2024-06-03T10:00:00Z");
+
+    private BorrowingTrends borrowingTrends;
+
+    @BeforeEach
+    void setUp() {
+        borrowingTrends = new BorrowingTrends();
+        ReflectionTestUtils.setField(borrowingTrends, "topK", 3);
+        ReflectionTestUtils.setField(borrowingTrends, "sketchWidth", 1024);
+        ReflectionTestUtils.setField(borrowingTrends, "bookBorrowerPrecision", 8);
+        borrowingTrends.start();
+        at(START);
+    }
+
+    @Test
+    void testTrending_ranksMostBorrowed() {
+        borrow(1L, 10L, 20L);
+        borrow(2L, 10L);
+        borrow(3L, 10L, 20L, 30L);
+
+        BorrowingTrends.Trend trend = borrowingTrends.trending(TrendingWindow.HOUR, 10);
+
+        assertEquals(List.of(new BorrowingTrends.HeavyHitter(10L, 3), new BorrowingTrends.HeavyHitter(20L, 2),
+                new BorrowingTrends.HeavyHitter(30L, 1)), trend.books());
+        assertEquals(6, trend.borrows());
+        assertEquals(3, trend.uniqueBorrowers());
+    }
+
+    @Test
+    void testTrending_keepsTopK() {
+        borrow(1L, 10L, 20L, 30L);
+        borrow(2L, 10L, 20L);
+        borrow(3L, 40L);
+        borrow(4L, 40L);
+        borrow(5L, 40L); // Beats book 30, the weakest of the three candidates
+
+        List<Long> books = borrowingTrends.trending(TrendingWindow.HOUR, 10).books().stream()
+                .map(BorrowingTrends.HeavyHitter::bookId).toList();
+
+        assertEquals(List.of(40L, 10L, 20L), books);
+    }
+
+    @Test
+    void testTrending_oldBorrowsSlideOutOfShortWindowOnly() {
+        borrow(1L, 10L);
+        at(START.plus(Duration.ofMinutes(90)));
+        borrow(2L, 20L);
+
+        BorrowingTrends.Trend hour = borrowingTrends.trending(TrendingWindow.HOUR, 10);
+        BorrowingTrends.Trend day = borrowingTrends.trending(TrendingWindow.DAY, 10);
+
+        assertEquals(List.of(new BorrowingTrends.HeavyHitter(20L, 1)), hour.books());
+        assertEquals(1, hour.borrows());
+        assertEquals(1, hour.uniqueBorrowers());
+        assertEquals(2, day.borrows());
+        assertEquals(2, day.books().size());
+    }
+
+    @Test
+    void testTrending_slidesBucketByBucket() {
+        borrow(1L, 10L);
+        at(START.plus(Duration.ofMinutes(30)));
+        borrow(2L, 10L);
+
+        at(START.plus(Duration.ofMinutes(62))); // The first borrow's five-minute bucket has expired
+        BorrowingTrends.Trend trend = borrowingTrends.trending(TrendingWindow.HOUR, 10);
+
+        assertEquals(List.of(new BorrowingTrends.HeavyHitter(10L, 1)), trend.books());
+    }
+
+    @Test
+    void testTrending_emptyAfterLongIdle() {
+        borrow(1L, 10L);
+        at(START.plus(Duration.ofDays(30)));
+
+        BorrowingTrends.Trend trend = borrowingTrends.trending(TrendingWindow.WEEK, 10);
+
+        assertTrue(trend.books().isEmpty());
+        assertEquals(0, trend.borrows());
+        assertEquals(0, trend.uniqueBorrowers());
+    }
+
+    @Test
+    void testUniqueBorrowers() {
+        for (long customer = 1; customer <= 40; customer++) {
+            borrow(customer, 10L);
+            borrow(customer, 10L);
+        }
+
+        assertEquals(40, borrowingTrends.uniqueBorrowers(10L), 4);
+        assertEquals(0, borrowingTrends.uniqueBorrowers(20L));
+    }
+
+    @Test
+    void testRemove_dropsBorrowerCount() {
+        borrow(1L, 10L);
+
+        borrowingTrends.remove(10L);
+
+        assertEquals(0, borrowingTrends.uniqueBorrowers(10L));
+    }
+
+    private void at(Instant instant) {
+        ReflectionTestUtils.setField(borrowingTrends, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private void borrow(long customerId, Long... bookIds) {
+        borrowingTrends.borrowed(customerId, List.of(bookIds));
+    }
+}
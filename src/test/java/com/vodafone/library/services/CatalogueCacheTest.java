@@ -0,0 +1,89 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.config.CacheConfig;
+import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogueCacheTest {
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS, CacheConfig.BOOKS_BY_ISBN, CacheConfig.AUTHORS);
+
+    @InjectMocks
+    private CatalogueCache catalogueCache;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Author author = new Author(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1", null);
+        book = new Book(1L, "Book 1", author, "978-3-16-148410-0", LocalDate.of(2020, 1, 1), "Fiction", true);
+        cacheManager.getCache(CacheConfig.BOOKS).put(1L, book);
+        cacheManager.getCache(CacheConfig.BOOKS).put(2L, new Book());
+        cacheManager.getCache(CacheConfig.BOOKS_BY_ISBN).put("978-3-16-148410-0", book);
+        cacheManager.getCache(CacheConfig.AUTHORS).put(1L, author);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEvictBook() {
+        catalogueCache.evictBook(book);
+
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(2L));
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS_BY_ISBN).get("978-3-16-148410-0"));
+        assertNull(cacheManager.getCache(CacheConfig.AUTHORS).get(1L));
+    }
+
+    @Test
+    void testEvictBook_unsavedBook() {
+        catalogueCache.evictBook(new Book());
+
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+    }
+
+    @Test
+    void testEvictAuthor() {
+        catalogueCache.evictAuthor(1L);
+
+        assertNull(cacheManager.getCache(CacheConfig.AUTHORS).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(2L));
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS_BY_ISBN).get("978-3-16-148410-0"));
+    }
+
+    @Test
+    void testEvictBook_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        catalogueCache.evictBook(book);
+        book.setIsbn("978-0-00-000000-0"); // Changed by the write after the eviction was asked for
+
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS_BY_ISBN).get("978-3-16-148410-0"));
+    }
+}
@@ -0,0 +1,167 @@
+package com.vodafone.library.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vodafone.library.dto.AuthorSummary;
+import com.vodafone.library.dto.CatalogueRow;
+import com.vodafone.library.dto.ImportReport;
+import com.vodafone.library.repository.AuthorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class CatalogueImportServiceTest {
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private CatalogueImportWriter catalogueImportWriter;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private CatalogueImportService catalogueImportService;
+
+    private final List<List<CatalogueRow>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(authorRepository.findAllSummaries()).thenReturn(List.of(new AuthorSummary(1L, "Frank Herbert", LocalDate.of(1920, 10, 8), "American")));
+        // The service clears the chunk after writing it, so keep a copy
+        when(catalogueImportWriter.write(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<CatalogueRow> rows = invocation.getArgument(0);
+            chunks.add(new ArrayList<>(rows));
+            return new CatalogueImportWriter.ChunkResult(rows.size(), 0, 0, Map.of("j. r. r. tolkien", 2L));
+        });
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testImportCatalogue_csv() throws Exception {
+        String csv = """
+                title,isbn,publicationDate,genre,authorName,authorBirthDate,authorNationality
+                Dune,ISBN1,1965-08-01,Science Fiction,Frank Herbert,,
+                "The Hobbit, or There and Back Again",ISBN2,1937-09-21,Fantasy,J. R. R. Tolkien,1892-01-03,British
+                Broken,ISBN3,not-a-date,Fantasy,Someone,,
+                """;
+
+        ResponseEntity<ImportReport> response = catalogueImportService.importCatalogue(input(csv), CatalogueImportService.TEXT_CSV);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ImportReport report = response.getBody();
+        assertEquals(3, report.read());
+        assertEquals(2, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(1, report.authorsCreated());
+        assertEquals(1, chunks.size());
+        assertEquals("The Hobbit, or There and Back Again", chunks.get(0).get(1).title());
+        assertEquals(LocalDate.of(1892, 1, 3), chunks.get(0).get(1).authorBirthDate());
+    }
+
+    @Test
+    void testImportCatalogue_ndjson() throws Exception {
+        String ndjson = """
+                {"title":"Dune","isbn":"ISBN1","publicationDate":"1965-08-01","genre":"Science Fiction","authorName":"Frank Herbert"}
+                {"title":"No ISBN","publicationDate":"1965-08-01","genre":"Science Fiction","authorName":"Frank Herbert"}
+                not json
+                """;
+
+        ResponseEntity<ImportReport> response = catalogueImportService.importCatalogue(input(ndjson), MediaType.APPLICATION_NDJSON);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().imported());
+        assertEquals(2, response.getBody().rejected());
+        assertEquals("ISBN1", chunks.get(0).get(0).isbn());
+    }
+
+    @Test
+    void testImportCatalogue_writesInChunks() throws Exception {
+        StringBuilder csv = new StringBuilder("title,isbn,publicationDate,genre,authorName\n");
+        for (int i = 0; i < CatalogueImportService.CHUNK_SIZE + 1; i++) {
+            csv.append("Book ").append(i).append(",ISBN").append(i).append(",2000-01-01,Fiction,Frank Herbert\n");
+        }
+
+        ResponseEntity<ImportReport> response = catalogueImportService.importCatalogue(input(csv.toString()), CatalogueImportService.TEXT_CSV);
+
+        assertEquals(CatalogueImportService.CHUNK_SIZE + 1, response.getBody().imported());
+        assertEquals(2, chunks.size());
+        assertEquals(1, chunks.get(1).size());
+        // Authors created by one chunk are known to the next one
+        ArgumentCaptor<Map<String, Long>> authorIds = ArgumentCaptor.forClass(Map.class);
+        verify(catalogueImportWriter, times(2)).write(anyList(), authorIds.capture());
+        assertEquals(2L, authorIds.getValue().get("j. r. r. tolkien"));
+        assertEquals(1L, authorIds.getValue().get("frank herbert"));
+    }
+
+    @Test
+    void testImportCatalogue_failedChunkIsWrittenRowByRow() throws Exception {
+        doAnswer(invocation -> {
+            List<CatalogueRow> rows = invocation.getArgument(0);
+            if (rows.size() > 1 || rows.get(0).isbn().equals("ISBN2")) {
+                throw new DataIntegrityViolationException("Unique index or primary key violation");
+            }
+            chunks.add(new ArrayList<>(rows));
+            return new CatalogueImportWriter.ChunkResult(1, 0, 0, Map.of());
+        }).when(catalogueImportWriter).write(anyList(), anyMap());
+        String csv = """
+                title,isbn,publicationDate,genre,authorName
+                Dune,ISBN1,1965-08-01,Science Fiction,Frank Herbert
+                Dune Messiah,ISBN2,1969-01-01,Science Fiction,Frank Herbert
+                Children of Dune,ISBN3,1976-04-01,Science Fiction,Frank Herbert
+                """;
+
+        ResponseEntity<ImportReport> response = catalogueImportService.importCatalogue(input(csv), CatalogueImportService.TEXT_CSV);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().read());
+        assertEquals(2, response.getBody().imported());
+        assertEquals(1, response.getBody().rejected());
+        assertEquals(List.of("ISBN1", "ISBN3"), chunks.stream().map(rows -> rows.get(0).isbn()).toList());
+    }
+
+    @Test
+    void testImportCatalogue_missingCsvColumn() throws Exception {
+        ResponseEntity<ImportReport> response = catalogueImportService.importCatalogue(input("title,isbn\nDune,ISBN1\n"), CatalogueImportService.TEXT_CSV);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(catalogueImportWriter, never()).write(anyList(), anyMap());
+    }
+
+    @Test
+    void testImportCatalogue_unsupportedContentType() throws Exception {
+        ResponseEntity<ImportReport> response = catalogueImportService.importCatalogue(input(""), MediaType.APPLICATION_JSON);
+
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, response.getStatusCode());
+    }
+
+    @Test
+    void testSplitCsv() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""), CatalogueImportService.splitCsv("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+}
@@ -0,0 +1,119 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.dto.CatalogueRow;
+import com.vodafone.library.dto.CirculationEventType;
+import com.vodafone.library.model.Author;
+import com.vodafone.library.model.Book;
+import com.vodafone.library.repository.AuthorRepository;
+import com.vodafone.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class CatalogueImportWriterTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private CatalogueCache catalogueCache;
+
+    @Mock
+    private CirculationOutbox circulationOutbox;
+
+    @InjectMocks
+    private CatalogueImportWriter catalogueImportWriter;
+
+    private final Author herbert = new Author(1L, "Frank Herbert", LocalDate.of(1920, 10, 8), "American", null);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(authorRepository.getReferenceById(1L)).thenReturn(herbert);
+        when(authorRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            long id = 10;
+            for (Author author : invocation.<Collection<Author>>getArgument(0)) {
+                author.setId(id++);
+            }
+            return new ArrayList<>(invocation.<Collection<Author>>getArgument(0));
+        });
+        when(bookRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            long id = 100;
+            for (Book book : invocation.<Collection<Book>>getArgument(0)) {
+                book.setId(id++);
+            }
+            return new ArrayList<>(invocation.<Collection<Book>>getArgument(0));
+        });
+    }
+
+    @Test
+    void testWrite() {
+        List<CatalogueRow> rows = List.of(
+                new CatalogueRow("Dune", "ISBN1", LocalDate.of(1965, 8, 1), "Science Fiction", "frank herbert", null, null),
+                new CatalogueRow("Dune again", "ISBN1", LocalDate.of(1965, 8, 1), "Science Fiction", "Frank Herbert", null, null),
+                new CatalogueRow("Old Book", "ISBN2", LocalDate.of(1900, 1, 1), "Fiction", "Frank Herbert", null, null),
+                new CatalogueRow("The Hobbit", "ISBN3", LocalDate.of(1937, 9, 21), "Fantasy", "J. R. R. Tolkien", LocalDate.of(1892, 1, 3), "British"),
+                new CatalogueRow("The Silmarillion", "ISBN4", LocalDate.of(1977, 9, 15), "Fantasy", "J. R. R. Tolkien", null, null),
+                new CatalogueRow("Unknown", "ISBN5", LocalDate.of(2000, 1, 1), "Fiction", "Nobody", null, null));
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of("ISBN2"));
+
+        CatalogueImportWriter.ChunkResult result = catalogueImportWriter.write(rows, Map.of("frank herbert", 1L));
+
+        assertEquals(3, result.imported());
+        assertEquals(2, result.duplicates());
+        assertEquals(1, result.rejected());
+        assertEquals(Map.of("j. r. r. tolkien", 10L), result.createdAuthors());
+
+        ArgumentCaptor<Collection<Book>> books = ArgumentCaptor.forClass(Collection.class);
+        verify(bookRepository).saveAll(books.capture());
+        List<Book> saved = new ArrayList<>(books.getValue());
+        assertEquals(List.of("Dune", "The Hobbit", "The Silmarillion"), saved.stream().map(Book::getTitle).toList());
+        assertSame(herbert, saved.get(0).getAuthor());
+        assertSame(saved.get(1).getAuthor(), saved.get(2).getAuthor());
+        verify(bookSearchIndex, times(3)).index(any(BookSummary.class));
+        verify(catalogueCache, times(3)).evictBook(any(Book.class));
+        verify(circulationOutbox).recordAll(argThat(events -> events.size() == 3
+                && events.stream().allMatch(event -> event.getEventType() == CirculationEventType.BOOK_CREATED)
+                && events.get(0).getBookId().equals(100L)));
+    }
+
+    @Test
+    void testWrite_indexesOnlyAfterCommit() {
+        List<CatalogueRow> rows = List.of(new CatalogueRow("Dune", "ISBN1", LocalDate.of(1965, 8, 1), "Science Fiction", "Frank Herbert", null, null));
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogueImportWriter.write(rows, Map.of("frank herbert", 1L));
+            verify(bookSearchIndex, never()).index(any(BookSummary.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookSearchIndex).index(any(BookSummary.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
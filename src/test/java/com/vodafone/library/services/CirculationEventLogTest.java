@@ -0,0 +1,182 @@
+package com.vodafone.library.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CirculationEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    private CirculationEventLog log;
+
+    @BeforeEach
+    void setUp() {
+        log = open(DataSize.ofKilobytes(1), 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.close();
+    }
+
+    @Test
+    void testAppendAndRead() {
+        assertEquals(0, log.append(events(0, 3)));
+        assertEquals(3, log.append(events(3, 2)));
+
+        List<CirculationEventLog.LogRecord> records = log.read(1, 10);
+
+        assertEquals(5, log.endOffset());
+        assertEquals(List.of(1L, 2L, 3L, 4L), records.stream().map(CirculationEventLog.LogRecord::offset).toList());
+        assertEquals("event-3", text(records.get(2)));
+    }
+
+    @Test
+    void testRead_stopsAtMaxRecordsAndEnd() {
+        log = open(DataSize.ofKilobytes(64), 16);
+        log.append(events(0, 200));
+
+        assertEquals(10, log.read(100, 10).size());
+        assertEquals(130L, log.read(130, 10).get(0).offset()); // Past a sparse index entry
+        assertTrue(log.read(200, 10).isEmpty());
+    }
+
+    @Test
+    void testAppend_rollsSegments() throws IOException {
+        log.append(events(0, 300)); // About 24 bytes a record, so several 1 KB segments
+
+        assertTrue(segmentFiles() > 1);
+        List<CirculationEventLog.LogRecord> records = log.read(0, 1000);
+        assertEquals(300, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).offset());
+            assertEquals("event-" + i, text(records.get(i)));
+        }
+    }
+
+    @Test
+    void testAppend_dropsOldSegmentsBeyondRetention() throws IOException {
+        log = open(DataSize.ofKilobytes(1), 2);
+        log.append(events(0, 300));
+
+        assertEquals(2, segmentFiles());
+        assertTrue(log.startOffset() > 0);
+        List<CirculationEventLog.LogRecord> records = log.read(0, 1000);
+        assertEquals(log.startOffset(), records.get(0).offset());
+        assertEquals(299L, records.get(records.size() - 1).offset());
+    }
+
+    @Test
+    void testAppend_refusesEventLargerThanSegment() {
+        assertThrows(IllegalArgumentException.class, () -> log.append(List.of(new byte[2048])));
+    }
+
+    @Test
+    void testOpen_recoversOffsetsFromSegments() {
+        log.append(events(0, 150));
+
+        log = open(DataSize.ofKilobytes(1), 16);
+
+        assertEquals(150, log.endOffset());
+        assertEquals(150, log.append(events(150, 1)));
+        assertEquals("event-149", text(log.read(149, 1).get(0)));
+    }
+
+    @Test
+    void testOpen_dropsTornRecordAtTail() throws IOException {
+        log = open(DataSize.ofKilobytes(4), 16);
+        log.append(events(0, 3));
+        log.close();
+        Path segment = directory.resolve(String.format("%020d.log", 0));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 2 * 23 + 16); // First payload byte of the third record
+        }
+
+        log = open(DataSize.ofKilobytes(4), 16);
+
+        assertEquals(2, log.endOffset());
+        assertEquals(2, log.read(0, 10).size());
+    }
+
+    @Test
+    void testOpen_refusesDirectoryAlreadyOpen() {
+        CirculationEventLog second = create(DataSize.ofKilobytes(1), 16);
+
+        assertThrows(IllegalStateException.class, second::open);
+    }
+
+    @Test
+    void testAwaitAppend_returnsOnceAnEventArrives() throws InterruptedException {
+        Thread appender = new Thread(() -> log.append(events(0, 1)));
+        appender.start();
+
+        log.awaitAppend(0, 5000);
+        appender.join();
+
+        assertEquals(1, log.read(0, 10).size());
+    }
+
+    @Test
+    void testAwaitAppend_timesOut() {
+        long start = System.nanoTime();
+
+        log.awaitAppend(0, 50);
+
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+        assertEquals(0, log.endOffset());
+    }
+
+    // Closes the log the test has open first, as a restart would
+    private CirculationEventLog open(DataSize segmentSize, int retainedSegments) {
+        if (log != null) {
+            log.close();
+        }
+        CirculationEventLog eventLog = create(segmentSize, retainedSegments);
+        eventLog.open();
+        return eventLog;
+    }
+
+    private CirculationEventLog create(DataSize segmentSize, int retainedSegments) {
+        CirculationEventLog eventLog = new CirculationEventLog();
+        ReflectionTestUtils.setField(eventLog, "directory", directory);
+        ReflectionTestUtils.setField(eventLog, "segmentSize", segmentSize);
+        ReflectionTestUtils.setField(eventLog, "retainedSegments", retainedSegments);
+        return eventLog;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+
+    private static List<byte[]> events(int first, int count) {
+        List<byte[]> events = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            events.add(("event-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        return events;
+    }
+
+    private static String text(CirculationEventLog.LogRecord record) {
+        return new String(record.payload(), StandardCharsets.UTF_8);
+    }
+}
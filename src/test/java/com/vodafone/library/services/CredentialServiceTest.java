@@ -0,0 +1,98 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.config.PasswordHasher;
+import com.vodafone.library.model.Customer;
+import com.vodafone.library.repository.CustomerRepository;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CredentialServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(1000);
+
+    @InjectMocks
+    private CredentialService credentialService;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(credentialService, "verifyThreads", 1);
+        ReflectionTestUtils.setField(credentialService, "verifyQueue", 4);
+        ReflectionTestUtils.setField(credentialService, "sessionTtl", Duration.ofMinutes(5));
+        credentialService.start();
+        customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678",
+                passwordHasher.hash("password1"), "Alexandria", null);
+        when(customerRepository.findByEmail("omartayfour@example.com")).thenReturn(Optional.of(customer));
+        clearInvocations(passwordHasher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        credentialService.stop();
+    }
+
+    @Test
+    void testAuthenticateValidPassword() {
+        Optional<Customer> result = credentialService.authenticate("omartayfour@example.com", "password1", "session").join();
+
+        assertEquals(Optional.of(customer), result);
+        verify(customerRepository, never()).updatePassword(anyLong(), anyString());
+    }
+
+    @Test
+    void testAuthenticateWrongPassword() {
+        assertFalse(credentialService.authenticate("omartayfour@example.com", "wrong", "session").join().isPresent());
+    }
+
+    @Test
+    void testAuthenticateUnknownEmail() {
+        when(customerRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertFalse(credentialService.authenticate("nobody@example.com", "password1", "session").join().isPresent());
+        verify(passwordHasher, times(1)).verify(eq("password1"), anyString());
+    }
+
+    @Test
+    void testAuthenticateCachedForSession() {
+        credentialService.authenticate("omartayfour@example.com", "password1", "session").join();
+        credentialService.authenticate("omartayfour@example.com", "password1", "session").join();
+        credentialService.authenticate("omartayfour@example.com", "password1", "other-session").join();
+
+        verify(passwordHasher, times(2)).verify(eq("password1"), anyString());
+        // The cached entry never accepts a different password
+        assertFalse(credentialService.authenticate("omartayfour@example.com", "wrong", "session").join().isPresent());
+    }
+
+    @Test
+    void testAuthenticateRehashesLegacyPassword() {
+        customer.setPassword(DigestUtils.sha256Hex("password1"));
+
+        assertTrue(credentialService.authenticate("omartayfour@example.com", "password1", "session").join().isPresent());
+
+        assertTrue(customer.getPassword().startsWith("pbkdf2$1000$"));
+        verify(customerRepository, times(1)).updatePassword(1L, customer.getPassword());
+    }
+}
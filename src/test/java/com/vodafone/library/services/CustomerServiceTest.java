@@ -1,5 +1,7 @@
 package com.vodafone.library.services;
 
+import com.vodafone.library.dto.CustomerSummary;
+import com.vodafone.library.dto.LoginRequest;
 import com.vodafone.library.model.Customer;
 import com.vodafone.library.repository.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +15,8 @@ import org.springframework.http.ResponseEntity;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,6 +27,9 @@ public class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CredentialService credentialService;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -34,18 +41,18 @@ public class CustomerServiceTest {
     @Test
     public void testGetAllCustomers() {
         // Mock data
-        List<Customer> customers = new ArrayList<>();
-        customers.add(new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null));
-        customers.add(new Customer(2L, "Omar Mohamed", "omarmohamed@example.com", "01198765432", "password2", "Cairo", null));
-        when(customerRepository.findAll()).thenReturn(customers);
+        List<CustomerSummary> customers = new ArrayList<>();
+        customers.add(new CustomerSummary(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "Alexandria"));
+        customers.add(new CustomerSummary(2L, "Omar Mohamed", "omarmohamed@example.com", "01198765432", "Cairo"));
+        when(customerRepository.findAllSummaries()).thenReturn(customers);
 
         // Call service method
-        ResponseEntity<List<Customer>> responseEntity = customerService.getAllCustomers();
+        ResponseEntity<List<CustomerSummary>> responseEntity = customerService.getAllCustomers();
 
         // Verify
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(customers, responseEntity.getBody());
-        verify(customerRepository, times(1)).findAll();
+        verify(customerRepository, times(1)).findAllSummaries();
     }
 
     @Test
@@ -81,14 +88,29 @@ public class CustomerServiceTest {
         // Mock data
         Customer customerToSave = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
         when(customerRepository.save(any(Customer.class))).thenReturn(customerToSave);
+        when(credentialService.hash("password1")).thenReturn(CompletableFuture.completedFuture("hash"));
 
         // Call service method
-        ResponseEntity<Customer> responseEntity = customerService.createCustomer(customerToSave);
+        ResponseEntity<Customer> responseEntity = customerService.createCustomer(customerToSave).join();
 
         // Verify
         assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
         assertEquals(customerToSave, responseEntity.getBody());
+        assertEquals("hash", customerToSave.getPassword());
         verify(customerRepository, times(1)).save(any(Customer.class));
+        verify(credentialService, times(1)).hash("password1");
+    }
+
+    @Test
+    public void testCreateCustomerHashingSaturated() {
+        Customer customerToSave = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "password1", "Alexandria", null);
+        when(credentialService.hash("password1")).thenThrow(new RejectedExecutionException());
+
+        ResponseEntity<Customer> responseEntity = customerService.createCustomer(customerToSave).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertEquals("1", responseEntity.getHeaders().getFirst("Retry-After"));
+        verify(customerRepository, never()).save(any(Customer.class));
     }
 
     @Test
@@ -98,13 +120,16 @@ public class CustomerServiceTest {
         Customer updatedCustomerDetails = new Customer(1L, "Updated Name", "updated@example.com", "0123456789", "updatedPassword", "Updated Address", null);
         when(customerRepository.findById(1L)).thenReturn(Optional.of(existingCustomer));
         when(customerRepository.save(any(Customer.class))).thenReturn(updatedCustomerDetails);
+        when(credentialService.hash("updatedPassword")).thenReturn(CompletableFuture.completedFuture("hash"));
 
         // Call service method
-        ResponseEntity<Customer> responseEntity = customerService.updateCustomer(1L, updatedCustomerDetails);
+        ResponseEntity<Customer> responseEntity = customerService.updateCustomer(1L, updatedCustomerDetails).join();
 
         // Verify
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertEquals(updatedCustomerDetails, responseEntity.getBody());
+        assertEquals(existingCustomer, responseEntity.getBody());
+        assertEquals("Updated Name", existingCustomer.getName());
+        assertEquals("hash", existingCustomer.getPassword());
         verify(customerRepository, times(1)).findById(1L);
         verify(customerRepository, times(1)).save(any(Customer.class));
     }
@@ -116,12 +141,13 @@ public class CustomerServiceTest {
         when(customerRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Call service method
-        ResponseEntity<Customer> responseEntity = customerService.updateCustomer(1L, updatedCustomerDetails);
+        ResponseEntity<Customer> responseEntity = customerService.updateCustomer(1L, updatedCustomerDetails).join();
 
         // Verify
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
         verify(customerRepository, times(1)).findById(1L);
         verify(customerRepository, never()).save(any(Customer.class));
+        verify(credentialService, never()).hash(any());
     }
 
     @Test
@@ -152,4 +178,45 @@ public class CustomerServiceTest {
         verify(customerRepository, times(1)).findById(1L);
         verify(customerRepository, never()).deleteById(any(Long.class));
     }
+
+    @Test
+    public void testLoginValidCredentials() {
+        // Mock data
+        Customer customer = new Customer(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "hash", "Alexandria", null);
+        when(credentialService.authenticate("omartayfour@example.com", "password1", "session"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(customer)));
+
+        // Call service method
+        ResponseEntity<CustomerSummary> responseEntity = customerService.login(new LoginRequest("omartayfour@example.com", "password1"), "session").join();
+
+        // Verify
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(new CustomerSummary(1L, "Omar Tayfour", "omartayfour@example.com", "01012345678", "Alexandria"), responseEntity.getBody());
+    }
+
+    @Test
+    public void testLoginInvalidCredentials() {
+        // Mock data
+        when(credentialService.authenticate("omartayfour@example.com", "wrong", "session"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // Call service method
+        ResponseEntity<CustomerSummary> responseEntity = customerService.login(new LoginRequest("omartayfour@example.com", "wrong"), "session").join();
+
+        // Verify
+        assertEquals(HttpStatus.UNAUTHORIZED, responseEntity.getStatusCode());
+    }
+
+    @Test
+    public void testLoginVerificationPoolSaturated() {
+        // Mock data
+        when(credentialService.authenticate(any(), any(), any())).thenThrow(new RejectedExecutionException());
+
+        // Call service method
+        ResponseEntity<CustomerSummary> responseEntity = customerService.login(new LoginRequest("omartayfour@example.com", "password1"), "session").join();
+
+        // Verify
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertEquals("1", responseEntity.getHeaders().getFirst("Retry-After"));
+    }
 }
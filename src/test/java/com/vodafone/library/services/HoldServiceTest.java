@@ -0,0 +1,189 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BookHoldSummary;
+import com.vodafone.library.dto.HoldRequest;
+import com.vodafone.library.model.BookHold;
+import com.vodafone.library.repository.BookHoldRepository;
+import com.vodafone.library.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class HoldServiceTest {
+
+    @Mock
+    private BookHoldRepository bookHoldRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Spy
+    private HoldQueue holdQueue = new HoldQueue();
+
+    @InjectMocks
+    private HoldService holdService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(holdService, "ttl", Duration.ofDays(14));
+        when(customerRepository.existsById(anyLong())).thenReturn(true);
+        when(bookHoldRepository.save(any(BookHold.class))).thenAnswer(invocation -> {
+            BookHold hold = invocation.getArgument(0);
+            hold.setId(100L + hold.getCustomerId());
+            return hold;
+        });
+    }
+
+    @Test
+    void testPlaceHold() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(0));
+
+        ResponseEntity<BookHoldSummary> response = holdService.placeHold(1L, new HoldRequest(7L));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(107L, response.getBody().id());
+        assertEquals(List.of(response.getBody()), holdService.getHolds(1L).getBody());
+    }
+
+    @Test
+    void testPlaceHold_copyOnShelf() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(1));
+
+        ResponseEntity<BookHoldSummary> response = holdService.placeHold(1L, new HoldRequest(7L));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(bookHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceHold_alreadyHeld() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(0));
+        when(bookHoldRepository.existsByBookIdAndCustomerId(1L, 7L)).thenReturn(true);
+
+        ResponseEntity<BookHoldSummary> response = holdService.placeHold(1L, new HoldRequest(7L));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void testPlaceHold_bookNotFound() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.empty());
+
+        ResponseEntity<BookHoldSummary> response = holdService.placeHold(1L, new HoldRequest(7L));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testClaim_oldestHoldsFirst() {
+        when(availabilityCache.availableCopies(1L)).thenReturn(OptionalInt.of(0));
+        holdService.placeHold(1L, new HoldRequest(7L));
+        holdService.placeHold(1L, new HoldRequest(8L));
+        holdService.placeHold(1L, new HoldRequest(9L));
+        LocalDateTime now = LocalDateTime.now();
+        when(bookHoldRepository.findLiveHoldsAfter(eq(1L), isNull(), eq(0L), any(LocalDateTime.class), argThat(limit -> limit.max() == 2))).thenReturn(List.of(
+                new BookHoldSummary(107L, 1L, 7L, now, now.plusDays(14)),
+                new BookHoldSummary(108L, 1L, 8L, now, now.plusDays(14))));
+        when(bookHoldRepository.deleteHold(anyLong())).thenReturn(1);
+
+        List<Long> holders = holdService.claim(1L, 2);
+
+        assertEquals(List.of(7L, 8L), holders);
+        assertEquals(List.of(109L), holdService.getHolds(1L).getBody().stream().map(BookHoldSummary::id).toList());
+    }
+
+    @Test
+    void testClaim_holdPlacedOnAnotherInstance() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookHoldRepository.findLiveHoldsAfter(eq(1L), isNull(), eq(0L), any(LocalDateTime.class), argThat(limit -> limit.max() == 1)))
+                .thenReturn(List.of(new BookHoldSummary(5L, 1L, 7L, now, now.plusDays(14))));
+        when(bookHoldRepository.deleteHold(5L)).thenReturn(1);
+
+        assertEquals(List.of(7L), holdService.claim(1L, 1)); // Nothing in this instance's queue
+    }
+
+    @Test
+    void testClaim_skipsHoldTakenElsewhere() {
+        LocalDateTime now = LocalDateTime.now();
+        holdQueue.add(new BookHoldSummary(2L, 1L, 8L, now.minusDays(2), now.plusDays(12)));
+        holdQueue.add(new BookHoldSummary(3L, 1L, 9L, now.minusDays(1), now.plusDays(13)));
+        when(bookHoldRepository.findLiveHoldsAfter(eq(1L), isNull(), eq(0L), any(LocalDateTime.class), argThat(limit -> limit.max() == 1)))
+                .thenReturn(List.of(new BookHoldSummary(2L, 1L, 8L, now.minusDays(2), now.plusDays(12))));
+        when(bookHoldRepository.findLiveHoldsAfter(eq(1L), eq(now.minusDays(2)), eq(2L), any(LocalDateTime.class), argThat(limit -> limit.max() == 1)))
+                .thenReturn(List.of(new BookHoldSummary(3L, 1L, 9L, now.minusDays(1), now.plusDays(13))));
+        when(bookHoldRepository.deleteHold(2L)).thenReturn(0);
+        when(bookHoldRepository.deleteHold(3L)).thenReturn(1);
+
+        List<Long> holders = holdService.claim(1L, 1);
+
+        assertEquals(List.of(9L), holders);
+        assertEquals(0, holdQueue.size());
+    }
+
+    @Test
+    void testClaim_noHolds() {
+        when(bookHoldRepository.findLiveHoldsAfter(anyLong(), any(), anyLong(), any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of());
+
+        assertTrue(holdService.claim(1L, 1).isEmpty());
+        verify(bookHoldRepository, never()).deleteHold(any());
+    }
+
+    @Test
+    void testCancelHold() {
+        LocalDateTime now = LocalDateTime.now();
+        holdQueue.add(new BookHoldSummary(1L, 1L, 7L, now, now.plusDays(14)));
+        when(bookHoldRepository.findById(1L)).thenReturn(Optional.of(new BookHold(1L, 1L, 7L, now, now.plusDays(14))));
+        when(bookHoldRepository.deleteHold(1L)).thenReturn(1);
+
+        ResponseEntity<Void> response = holdService.cancelHold(1L, 1L);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals(0, holdQueue.size());
+    }
+
+    @Test
+    void testCancelHold_otherBook() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookHoldRepository.findById(1L)).thenReturn(Optional.of(new BookHold(1L, 2L, 7L, now, now.plusDays(14))));
+
+        ResponseEntity<Void> response = holdService.cancelHold(1L, 1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(bookHoldRepository, never()).deleteHold(any());
+    }
+
+    @Test
+    void testPurgeExpiredHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        holdQueue.add(new BookHoldSummary(1L, 1L, 7L, now.minusDays(20), now.minusDays(6)));
+        holdQueue.add(new BookHoldSummary(2L, 1L, 8L, now, now.plusDays(14)));
+
+        holdService.purgeExpiredHolds();
+
+        verify(bookHoldRepository, times(1)).deleteExpired(any(LocalDateTime.class));
+        assertEquals(List.of(2L), holdService.getHolds(1L).getBody().stream().map(BookHoldSummary::id).toList());
+        assertEquals(1, holdQueue.size());
+    }
+}
@@ -0,0 +1,53 @@
+package com.vodafone.library.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimate_withinStandardError() {
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+        for (long value = 1; value <= 100000; value++) {
+            hyperLogLog.add(value);
+            hyperLogLog.add(value);
+        }
+
+        assertEquals(100000, hyperLogLog.estimate(), 100000 * 0.05);
+    }
+
+    @Test
+    void testEstimate_smallCountsNearlyExact() {
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+        for (long value = 1; value <= 50; value++) {
+            hyperLogLog.add(value);
+        }
+
+        assertEquals(50, hyperLogLog.estimate(), 1);
+    }
+
+    @Test
+    void testMerge_countsUnion() {
+        HyperLogLog first = new HyperLogLog(10);
+        HyperLogLog second = new HyperLogLog(10);
+        for (long value = 1; value <= 3000; value++) {
+            first.add(value);
+            second.add(value + 2000);
+        }
+
+        first.merge(second);
+
+        assertEquals(5000, first.estimate(), 5000 * 0.1);
+    }
+
+    @Test
+    void testClear() {
+        HyperLogLog hyperLogLog = new HyperLogLog(8);
+        hyperLogLog.add(1L);
+
+        hyperLogLog.clear();
+
+        assertEquals(0, hyperLogLog.estimate());
+    }
+}
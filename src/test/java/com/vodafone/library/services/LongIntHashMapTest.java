@@ -0,0 +1,76 @@
+package com.vodafone.library.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void testAddToAndGet() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(1, map.addTo(7L, 1));
+        assertEquals(3, map.addTo(7L, 2));
+        assertEquals(3, map.get(7L));
+        assertEquals(0, map.get(8L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testMatchesHashMapThroughGrowthAndRemoval() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.addTo(key, 1);
+                expected.merge(key, 1, Integer::sum);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testRetainTop() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 1; key <= 10; key++) {
+            map.addTo(key, (int) key);
+        }
+        map.addTo(11L, 10);
+
+        map.retainTop(3);
+
+        assertEquals(3, map.size());
+        assertEquals(10, map.get(10L));
+        assertEquals(10, map.get(11L));
+        assertEquals(9, map.get(9L));
+        assertEquals(0, map.get(8L));
+    }
+
+    @Test
+    void testRetainTop_tiesAtTheCut() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.addTo(1L, 5);
+        map.addTo(2L, 2);
+        map.addTo(3L, 2);
+        map.addTo(4L, 2);
+
+        map.retainTop(2);
+
+        assertEquals(2, map.size());
+        assertEquals(5, map.get(1L));
+    }
+}
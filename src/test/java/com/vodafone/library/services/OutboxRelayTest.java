@@ -0,0 +1,99 @@
+package com.vodafone.library.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vodafone.library.dto.CirculationEventType;
+import com.vodafone.library.model.OutboxEvent;
+import com.vodafone.library.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private CirculationEventLog circulationEventLog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void testRelay_appendsThenDeletesEachBatch() {
+        OutboxEvent first = event(1L, CirculationEventType.BOOK_BORROWED);
+        OutboxEvent second = event(2L, CirculationEventType.BOOK_RETURNED);
+        OutboxEvent third = event(3L, CirculationEventType.BOOK_BORROWED);
+        when(outboxEventRepository.findBatch(any(Limit.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        assertEquals(3, outboxRelay.relay());
+
+        InOrder order = inOrder(circulationEventLog, outboxEventRepository);
+        order.verify(circulationEventLog).append(argThat(payloads -> payloads.size() == 2
+                && new String(payloads.get(0), StandardCharsets.UTF_8).contains("\"eventId\":\"00000000-0000-0000-0000-000000000001\"")
+                && new String(payloads.get(1), StandardCharsets.UTF_8).contains("\"type\":\"BOOK_RETURNED\"")));
+        order.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        order.verify(circulationEventLog).append(argThat(payloads -> payloads.size() == 1));
+        order.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(outboxEventRepository, times(2)).findBatch(any(Limit.class)); // A short batch means the outbox is empty
+    }
+
+    @Test
+    void testRelay_emptyOutbox() {
+        when(outboxEventRepository.findBatch(any(Limit.class))).thenReturn(List.of());
+
+        assertEquals(0, outboxRelay.relay());
+
+        verifyNoInteractions(circulationEventLog);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testRelay_keepsEventsWhenAppendFails() {
+        when(outboxEventRepository.findBatch(any(Limit.class))).thenReturn(List.of(event(1L, CirculationEventType.BOOK_CREATED)));
+        when(circulationEventLog.append(anyList())).thenThrow(new IllegalStateException("disk full"));
+
+        assertThrows(IllegalStateException.class, () -> outboxRelay.relay());
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private static OutboxEvent event(Long id, CirculationEventType type) {
+        return new OutboxEvent(id, new UUID(0, id), type, 10L, 20L, 30L, LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+}
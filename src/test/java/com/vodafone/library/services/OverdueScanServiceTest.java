@@ -0,0 +1,125 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.OverdueScanReport;
+import com.vodafone.library.model.OverdueScanState;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import com.vodafone.library.repository.OverdueLoanRepository;
+import com.vodafone.library.repository.OverdueScanStateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OverdueScanServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 12);
+
+    @Mock
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private OverdueLoanRepository overdueLoanRepository;
+
+    @Mock
+    private OverdueScanStateRepository overdueScanStateRepository;
+
+    @Mock
+    private OverdueScanWriter overdueScanWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OverdueScanService overdueScanService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(overdueScanService, "chunkSize", 2);
+        ReflectionTestUtils.setField(overdueScanService, "parallelism", 2);
+        overdueScanService.start();
+        when(overdueScanWriter.write(anyList(), eq(TODAY))).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size() - 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        overdueScanService.stop();
+    }
+
+    @Test
+    void testFirstScan_checksEveryLoanDueBeforeToday() {
+        when(overdueScanStateRepository.findById(OverdueScanState.ID)).thenReturn(Optional.empty());
+        when(borrowingRecordRepository.streamIdsDueBetween(LocalDate.EPOCH, TODAY)).thenReturn(Stream.of(1L, 2L, 3L, 4L, 5L));
+
+        OverdueScanReport report = overdueScanService.scan(TODAY);
+
+        assertEquals(5, report.dueScanned());
+        assertEquals(0, report.changedScanned());
+        assertEquals(2, report.overdueFound()); // chunks of 2, 2 and 1, each with one loan not overdue
+        verify(overdueScanWriter).write(List.of(1L, 2L), TODAY);
+        verify(overdueScanWriter).write(List.of(3L, 4L), TODAY);
+        verify(overdueScanWriter).write(List.of(5L), TODAY);
+        verify(borrowingRecordRepository, never()).streamIdsModifiedSince(any());
+    }
+
+    @Test
+    void testLaterScan_readsOnlyNewlyDueAndChangedLoans() {
+        LocalDateTime lastRun = LocalDateTime.of(2024, 6, 11, 2, 0);
+        when(overdueScanStateRepository.findById(OverdueScanState.ID))
+                .thenReturn(Optional.of(new OverdueScanState(OverdueScanState.ID, TODAY.minusDays(1), lastRun)));
+        when(borrowingRecordRepository.streamIdsDueBetween(TODAY.minusDays(1), TODAY)).thenReturn(Stream.of(7L, 8L));
+        when(borrowingRecordRepository.streamIdsModifiedSince(lastRun)).thenReturn(Stream.of(3L));
+
+        OverdueScanReport report = overdueScanService.scan(TODAY);
+
+        assertEquals(2, report.dueScanned());
+        assertEquals(1, report.changedScanned());
+        ArgumentCaptor<OverdueScanState> state = ArgumentCaptor.forClass(OverdueScanState.class);
+        verify(overdueScanStateRepository).save(state.capture());
+        assertEquals(TODAY, state.getValue().getScannedBefore());
+        assertTrue(state.getValue().getModifiedSince().isAfter(lastRun));
+    }
+
+    @Test
+    void testFailedChunk_leavesWatermark() {
+        when(overdueScanStateRepository.findById(OverdueScanState.ID)).thenReturn(Optional.empty());
+        when(borrowingRecordRepository.streamIdsDueBetween(LocalDate.EPOCH, TODAY)).thenReturn(Stream.of(1L, 2L));
+        when(overdueScanWriter.write(List.of(1L, 2L), TODAY)).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(CompletionException.class, () -> overdueScanService.scan(TODAY));
+        verify(overdueScanStateRepository, never()).save(any());
+    }
+
+    @Test
+    void testReturnedDuringScan_chunkIsRetried() {
+        when(overdueScanStateRepository.findById(OverdueScanState.ID)).thenReturn(Optional.empty());
+        when(borrowingRecordRepository.streamIdsDueBetween(LocalDate.EPOCH, TODAY)).thenReturn(Stream.of(1L, 2L));
+        when(overdueScanWriter.write(List.of(1L, 2L), TODAY))
+                .thenThrow(new DataIntegrityViolationException("fk_overdue_loan_borrowing_record"))
+                .thenReturn(1);
+
+        OverdueScanReport report = overdueScanService.scan(TODAY);
+
+        assertEquals(1, report.overdueFound());
+        verify(overdueScanStateRepository).save(any(OverdueScanState.class));
+    }
+}
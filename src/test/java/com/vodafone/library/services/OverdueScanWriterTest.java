@@ -0,0 +1,60 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import com.vodafone.library.model.OverdueLoan;
+import com.vodafone.library.repository.BorrowingRecordRepository;
+import com.vodafone.library.repository.OverdueLoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class OverdueScanWriterTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 12);
+
+    @Mock
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private OverdueLoanRepository overdueLoanRepository;
+
+    @InjectMocks
+    private OverdueScanWriter overdueScanWriter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWrite_reportsOnlyLoansPastTheirDueDate() {
+        List<Long> ids = List.of(1L, 2L, 3L, 4L);
+        LocalDateTime firstSeen = LocalDateTime.of(2024, 6, 1, 2, 0);
+        when(overdueLoanRepository.findAllById(ids)).thenReturn(List.of(new OverdueLoan(1L, 1L, 1L, TODAY.minusDays(20), firstSeen)));
+        when(borrowingRecordRepository.findSummariesByIdIn(ids)).thenReturn(List.of(
+                new BorrowingRecordSummary(1L, 1L, "Omar Tayfour", 1L, "Book 1", TODAY.minusDays(34), TODAY.minusDays(20)),
+                new BorrowingRecordSummary(2L, 1L, "Omar Tayfour", 2L, "Book 2", TODAY.minusDays(15), TODAY.minusDays(1)),
+                new BorrowingRecordSummary(3L, 2L, "Customer 2", 3L, "Book 3", TODAY.minusDays(14), TODAY),
+                new BorrowingRecordSummary(4L, 2L, "Customer 2", 4L, "Book 4", TODAY.minusDays(3), null)));
+
+        int overdue = overdueScanWriter.write(ids, TODAY);
+
+        assertEquals(2, overdue);
+        verify(overdueLoanRepository).deleteByBorrowingRecordIdIn(ids);
+        ArgumentCaptor<List<OverdueLoan>> saved = ArgumentCaptor.forClass(List.class);
+        verify(overdueLoanRepository).saveAll(saved.capture());
+        assertEquals(List.of(1L, 2L), saved.getValue().stream().map(OverdueLoan::getBorrowingRecordId).toList());
+        assertEquals(firstSeen, saved.getValue().get(0).getDetectedAt()); // Kept from the earlier scan
+    }
+}
@@ -0,0 +1,105 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.AuthorSummary;
+import com.vodafone.library.dto.BookSummary;
+import com.vodafone.library.repository.ReactiveAuthorRepository;
+import com.vodafone.library.repository.ReactiveBookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ReactiveCatalogueServiceTest {
+
+    @Mock
+    private ReactiveBookRepository reactiveBookRepository;
+
+    @Mock
+    private ReactiveAuthorRepository reactiveAuthorRepository;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @InjectMocks
+    private ReactiveCatalogueService reactiveCatalogueService;
+
+    private BookSummary book1;
+    private BookSummary book2;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        book1 = new BookSummary(1L, "Book 1", "ISBN1", LocalDate.of(2020, 1, 1), "Fiction", true, 1L, "Author One");
+        book2 = new BookSummary(2L, "Book 2", "ISBN2", LocalDate.of(2021, 1, 1), "Fiction", true, 1L, "Author One");
+    }
+
+    @Test
+    void testGetAllBooks_fullPageHasCursor() {
+        when(reactiveBookRepository.findSummariesAfter(0L, 2)).thenReturn(Flux.just(book1, book2));
+
+        ResponseEntity<List<BookSummary>> response = reactiveCatalogueService.getAllBooks(null, 2).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(book1, book2), response.getBody());
+        assertEquals("2", response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllBooks_lastPageHasNoCursor() {
+        when(reactiveBookRepository.findSummariesAfter(anyLong(), anyInt())).thenReturn(Flux.just(book2));
+
+        ResponseEntity<List<BookSummary>> response = reactiveCatalogueService.getAllBooks(1L, 20).block();
+
+        assertEquals(List.of(book2), response.getBody());
+        assertNull(response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+        verify(reactiveBookRepository).findSummariesAfter(1L, 20);
+    }
+
+    @Test
+    void testGetBookById_notFound() {
+        when(reactiveBookRepository.findSummaryById(3L)).thenReturn(Mono.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, reactiveCatalogueService.getBookById(3L).block().getStatusCode());
+    }
+
+    @Test
+    void testSearchByTitle_keepsIndexRanking() {
+        when(bookSearchIndex.search("book", Pagination.MAX_PAGE_SIZE)).thenReturn(List.of(2L, 1L));
+        when(reactiveBookRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(Flux.just(book1, book2));
+
+        assertEquals(List.of(book2, book1), reactiveCatalogueService.searchByTitle("book").collectList().block());
+    }
+
+    @Test
+    void testSearchByTitle_noHitsSkipsDatabase() {
+        when(bookSearchIndex.search("nothing", Pagination.MAX_PAGE_SIZE)).thenReturn(List.of());
+
+        assertEquals(List.of(), reactiveCatalogueService.searchByTitle("nothing").collectList().block());
+        verifyNoInteractions(reactiveBookRepository);
+    }
+
+    @Test
+    void testGetAuthorById() {
+        AuthorSummary author = new AuthorSummary(1L, "Author One", LocalDate.of(1990, 1, 1), "Nationality1");
+        when(reactiveAuthorRepository.findSummaryById(1L)).thenReturn(Mono.just(author));
+
+        ResponseEntity<AuthorSummary> response = reactiveCatalogueService.getAuthorById(1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(author, response.getBody());
+    }
+}
@@ -0,0 +1,197 @@
+package com.vodafone.library.services;
+
+import com.vodafone.library.dto.BorrowingRecordSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelatedBooksIndexTest {
+
+    private RelatedBooksIndex relatedBooksIndex;
+    private long nextRecordId = 1;
+
+    @BeforeEach
+    void setUp() {
+        relatedBooksIndex = new RelatedBooksIndex();
+        ReflectionTestUtils.setField(relatedBooksIndex, "neighboursPerBook", 2);
+        ReflectionTestUtils.setField(relatedBooksIndex, "historyPerCustomer", 3);
+        ReflectionTestUtils.setField(relatedBooksIndex, "maxCustomers", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRelated_countsCustomersWhoBorrowedBoth() {
+        borrow(1L, 10L);
+        borrow(1L, 20L);
+        borrow(2L, 10L);
+        borrow(2L, 20L);
+        borrow(3L, 10L);
+        borrow(3L, 30L);
+
+        List<RelatedBooksIndex.Related> related = relatedBooksIndex.related(10L, 10);
+
+        assertEquals(List.of(20L, 30L), related.stream().map(RelatedBooksIndex.Related::bookId).toList());
+        assertEquals(2, related.get(0).coBorrowers());
+        assertEquals(1, related.get(1).coBorrowers());
+    }
+
+    @Test
+    void testRelated_rankedBySimilarityNotPopularity() {
+        // Book 20 goes out with 10 twice, but also to four other customers; book 30 only ever goes out with 10
+        borrow(1L, 10L);
+        borrow(1L, 20L);
+        borrow(1L, 30L);
+        borrow(2L, 10L);
+        borrow(2L, 20L);
+        for (long customer = 3; customer <= 6; customer++) {
+            borrow(customer, 20L);
+        }
+
+        List<RelatedBooksIndex.Related> related = relatedBooksIndex.related(10L, 10);
+
+        assertEquals(30L, related.get(0).bookId());
+        assertEquals(20L, related.get(1).bookId());
+    }
+
+    @Test
+    void testBorrowed_sameBookTwiceCountsOnce() {
+        borrow(1L, 10L);
+        borrow(1L, 20L);
+        borrow(1L, 10L);
+
+        assertEquals(1, relatedBooksIndex.related(20L, 10).get(0).coBorrowers());
+    }
+
+    @Test
+    void testBorrowed_onlyPairsWithRecentHistory() {
+        borrow(1L, 10L);
+        borrow(1L, 20L);
+        borrow(1L, 30L);
+        borrow(1L, 40L);
+        borrow(1L, 50L); // Book 10 has left the three-book history
+
+        assertTrue(relatedBooksIndex.related(50L, 10).stream().noneMatch(related -> related.bookId() == 10L));
+    }
+
+    @Test
+    void testBorrowed_rowIsPrunedToStrongestPairs() {
+        for (long customer = 1; customer <= 3; customer++) {
+            borrow(customer, 10L);
+            borrow(customer, 20L);
+        }
+        borrow(4L, 10L);
+        borrow(4L, 30L);
+        borrow(5L, 10L);
+        borrow(5L, 40L);
+        borrow(6L, 10L);
+        borrow(6L, 50L); // The fourth pair fills the row and cuts it back to two
+
+        List<RelatedBooksIndex.Related> related = relatedBooksIndex.related(10L, 10);
+
+        assertEquals(2, related.size());
+        assertEquals(20L, related.get(0).bookId());
+        assertEquals(3, related.get(0).coBorrowers());
+    }
+
+    @Test
+    void testBorrowed_appliedOnlyAfterCommit() {
+        borrow(1L, 10L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        borrow(1L, 20L);
+        assertTrue(relatedBooksIndex.related(10L, 10).isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, relatedBooksIndex.related(10L, 10).size());
+    }
+
+    @Test
+    void testRebuild_matchesIncrementalCounts() {
+        // Rows large enough never to be pruned, since which of several equal pairs a cut keeps depends on order
+        ReflectionTestUtils.setField(relatedBooksIndex, "neighboursPerBook", 10);
+        List<BorrowingRecordSummary> records = new ArrayList<>();
+        long[][] loans = {{1, 10}, {1, 20}, {2, 10}, {2, 20}, {2, 30}, {3, 30}, {3, 10}, {1, 30}, {1, 40}, {1, 50}};
+        for (long[] loan : loans) {
+            records.add(new BorrowingRecordSummary(nextRecordId, loan[0], "Customer", loan[1], "Book", LocalDate.now(), null));
+            borrow(loan[0], loan[1]);
+        }
+        List<RelatedBooksIndex.Related> incremental = relatedBooksIndex.related(10L, 10);
+
+        RelatedBooksIndex rebuilt = new RelatedBooksIndex();
+        ReflectionTestUtils.setField(rebuilt, "neighboursPerBook", 10);
+        ReflectionTestUtils.setField(rebuilt, "historyPerCustomer", 3);
+        ReflectionTestUtils.setField(rebuilt, "maxCustomers", 100);
+        rebuilt.rebuild(records::stream);
+
+        assertEquals(incremental, rebuilt.related(10L, 10));
+        assertEquals(relatedBooksIndex.related(30L, 10), rebuilt.related(30L, 10));
+    }
+
+    @Test
+    void testRebuild_replacesModel() {
+        borrow(1L, 10L);
+        borrow(1L, 20L);
+
+        relatedBooksIndex.rebuild(() -> Stream.of(
+                new BorrowingRecordSummary(1L, 2L, "Customer", 30L, "Book", LocalDate.now(), null),
+                new BorrowingRecordSummary(2L, 2L, "Customer", 40L, "Book", LocalDate.now(), null)));
+
+        assertTrue(relatedBooksIndex.related(10L, 10).isEmpty());
+        assertEquals(40L, relatedBooksIndex.related(30L, 10).get(0).bookId());
+    }
+
+    @Test
+    void testRebuild_replaysLoanWithLowerIdCommittedWhileStreaming() {
+        // Ids come from pooled blocks, so a loan committing during the rebuild can have a lower id than
+        // every record in the stream
+        relatedBooksIndex.rebuild(() -> {
+            relatedBooksIndex.borrowed(5L, 1L, 20L);
+            return Stream.of(new BorrowingRecordSummary(100L, 1L, "Customer", 10L, "Book", LocalDate.now(), null));
+        });
+
+        assertEquals(List.of(20L), relatedBooksIndex.related(10L, 10).stream().map(RelatedBooksIndex.Related::bookId).toList());
+    }
+
+    @Test
+    void testBorrowed_forgetsLeastRecentCustomers() {
+        ReflectionTestUtils.setField(relatedBooksIndex, "maxCustomers", 1);
+        borrow(1L, 10L);
+        borrow(2L, 30L);
+        borrow(1L, 20L);
+
+        assertTrue(relatedBooksIndex.related(10L, 10).isEmpty());
+        assertTrue(relatedBooksIndex.related(20L, 10).isEmpty());
+    }
+
+    @Test
+    void testRemove_dropsBook() {
+        borrow(1L, 10L);
+        borrow(1L, 20L);
+
+        relatedBooksIndex.remove(10L);
+
+        assertTrue(relatedBooksIndex.related(10L, 10).isEmpty());
+        assertEquals(1, relatedBooksIndex.size());
+    }
+
+    private void borrow(long customerId, long bookId) {
+        relatedBooksIndex.borrowed(nextRecordId++, customerId, bookId);
+    }
+}